@@ -0,0 +1,27 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the {@link ThroughputBenchmark} with the gc profiler attached. Look at <code>gc.alloc.rate.norm</code> for the
+ * bytes allocated per operation. Equivalent to
+ * <code>java -jar target/benchmarks.jar ThroughputBenchmark -prof gc</code>.
+ */
+public final class AllocationBenchmarks {
+
+	private AllocationBenchmarks() {
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder().include(ThroughputBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,49 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time from a fresh jvm to the first serialized and deserialized {@link Payload}. Every measurement runs in its own
+ * fork, so class loading, annotation introspection and handler creation are part of the result.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class ColdStartBenchmark {
+
+	@Param({ "LEGACY", "STOCK" })
+	public Introspectors introspector;
+
+	@Benchmark
+	public Object firstRoundTrip() throws Exception {
+		com.fasterxml.jackson.databind.ObjectMapper mapper = introspector.newMapper();
+		byte[] json = mapper.writeValueAsBytes(introspector.newPayload());
+		return mapper.readValue(json, introspector.payloadType());
+	}
+
+	/**
+	 * checked after the measurement, a check before it would load and introspect everything up front
+	 */
+	@TearDown
+	public void verify() throws Exception {
+		Introspectors.verifySameOutput();
+	}
+}
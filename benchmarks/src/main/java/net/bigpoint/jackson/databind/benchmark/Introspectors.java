@@ -0,0 +1,116 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.bigpoint.jackson.databind.introspect.JacksonLegacyIntrospector;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+
+/**
+ * Mapper setups compared by the benchmarks. Each setup has its own payload bean, annotated and handled the way that
+ * setup expects, and all setups write the same JSON.
+ */
+public enum Introspectors {
+
+	/**
+	 * {@link JacksonLegacyIntrospector} only
+	 */
+	LEGACY {
+		@Override
+		public ObjectMapper newMapper() {
+			ObjectMapper mapper = new ObjectMapper();
+			mapper.setAnnotationIntrospector(new JacksonLegacyIntrospector());
+			return mapper;
+		}
+
+		@Override
+		public Class<?> payloadType() {
+			return Payload.class;
+		}
+
+		@Override
+		public Object newPayload() {
+			Payload payload = new Payload();
+			payload.identifier = IDENTIFIER;
+			payload.title = TITLE;
+			payload.ignored = "ignored";
+			payload.position = new Payload.Point(3, 4);
+			payload.path = newPath();
+			return payload;
+		}
+	},
+
+	/**
+	 * the stock jackson 2 introspector with {@link StockPayload}, the baseline for the legacy setup
+	 */
+	STOCK {
+		@Override
+		public ObjectMapper newMapper() {
+			ObjectMapper mapper = new ObjectMapper();
+			mapper.setAnnotationIntrospector(new JacksonAnnotationIntrospector());
+			return mapper;
+		}
+
+		@Override
+		public Class<?> payloadType() {
+			return StockPayload.class;
+		}
+
+		@Override
+		public Object newPayload() {
+			StockPayload payload = new StockPayload();
+			payload.identifier = IDENTIFIER;
+			payload.title = TITLE;
+			payload.ignored = "ignored";
+			payload.position = new Payload.Point(3, 4);
+			payload.path = newPath();
+			return payload;
+		}
+	};
+
+	private static final long IDENTIFIER = 4711L;
+
+	private static final String TITLE = "benchmark";
+
+	public abstract ObjectMapper newMapper();
+
+	/**
+	 * @return the payload bean of this setup
+	 */
+	public abstract Class<?> payloadType();
+
+	/**
+	 * @return a filled instance of {@link #payloadType()}, every setup writes the same JSON for it
+	 */
+	public abstract Object newPayload();
+
+	/**
+	 * @throws IllegalStateException
+	 *             if the setups do not write the same JSON, their numbers would not be comparable
+	 */
+	static void verifySameOutput() throws IOException {
+		String expected = null;
+		for (Introspectors introspector : values()) {
+			String json = introspector.newMapper().writeValueAsString(introspector.newPayload());
+			if (expected == null) {
+				expected = json;
+			} else if (!expected.equals(json)) {
+				throw new IllegalStateException(introspector + " writes " + json + " instead of " + expected);
+			}
+		}
+	}
+
+	private static List<Payload.Point> newPath() {
+		List<Payload.Point> path = new ArrayList<Payload.Point>();
+		for (int i = 0; i < 16; ++i) {
+			path.add(new Payload.Point(i, -i));
+		}
+		return path;
+	}
+}
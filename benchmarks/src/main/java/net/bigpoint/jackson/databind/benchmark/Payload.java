@@ -0,0 +1,82 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonProcessingException;
+import org.codehaus.jackson.annotate.JsonIgnore;
+import org.codehaus.jackson.annotate.JsonProperty;
+import org.codehaus.jackson.map.DeserializationContext;
+import org.codehaus.jackson.map.JsonDeserializer;
+import org.codehaus.jackson.map.JsonSerializer;
+import org.codehaus.jackson.map.SerializerProvider;
+import org.codehaus.jackson.map.annotate.JsonDeserialize;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+
+/**
+ * Bean used by the benchmarks with the legacy introspector. It carries jackson 1 annotations only, the stock
+ * introspector uses the equivalent {@link StockPayload}.
+ */
+public class Payload {
+
+	@JsonProperty("id")
+	public long identifier;
+
+	@JsonProperty("name")
+	public String title;
+
+	@JsonIgnore
+	public String ignored;
+
+	@JsonSerialize(using = PointSerializer.class)
+	@JsonDeserialize(using = PointDeserializer.class)
+	public Point position;
+
+	@JsonSerialize(contentUsing = PointSerializer.class)
+	@JsonDeserialize(contentUsing = PointDeserializer.class)
+	public List<Point> path;
+
+	public static class Point {
+		public int x;
+
+		public int y;
+
+		public Point() {
+		}
+
+		public Point(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+	}
+
+	/**
+	 * writes a point as "x,y"
+	 */
+	public static class PointSerializer extends JsonSerializer<Point> {
+		@Override
+		public void serialize(Point value, JsonGenerator jgen, SerializerProvider provider) throws IOException,
+				JsonProcessingException {
+			jgen.writeString(value.x + "," + value.y);
+		}
+	}
+
+	/**
+	 * reads a point written by {@link PointSerializer}
+	 */
+	public static class PointDeserializer extends JsonDeserializer<Point> {
+		@Override
+		public Point deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException,
+				JsonProcessingException {
+			String text = jp.getText();
+			int separator = text.indexOf(',');
+			return new Point(Integer.parseInt(text.substring(0, separator)), Integer.parseInt(text
+					.substring(separator + 1)));
+		}
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Twin of {@link Payload} with jackson 2 annotations and jackson 2 handlers, used with the stock introspector. Both
+ * beans produce the same JSON, so both setups do the same work.
+ */
+public class StockPayload {
+
+	@JsonProperty("id")
+	public long identifier;
+
+	@JsonProperty("name")
+	public String title;
+
+	@JsonIgnore
+	public String ignored;
+
+	@JsonSerialize(using = PointSerializer.class)
+	@JsonDeserialize(using = PointDeserializer.class)
+	public Payload.Point position;
+
+	@JsonSerialize(contentUsing = PointSerializer.class)
+	@JsonDeserialize(contentUsing = PointDeserializer.class)
+	public List<Payload.Point> path;
+
+	/**
+	 * jackson 2 version of {@link Payload.PointSerializer}
+	 */
+	public static class PointSerializer extends JsonSerializer<Payload.Point> {
+		@Override
+		public void serialize(Payload.Point value, JsonGenerator jgen, SerializerProvider provider)
+				throws IOException, JsonProcessingException {
+			jgen.writeString(value.x + "," + value.y);
+		}
+	}
+
+	/**
+	 * jackson 2 version of {@link Payload.PointDeserializer}
+	 */
+	public static class PointDeserializer extends JsonDeserializer<Payload.Point> {
+		@Override
+		public Payload.Point deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException,
+				JsonProcessingException {
+			String text = jp.getText();
+			int separator = text.indexOf(',');
+			return new Payload.Point(Integer.parseInt(text.substring(0, separator)), Integer.parseInt(text
+					.substring(separator + 1)));
+		}
+	}
+}
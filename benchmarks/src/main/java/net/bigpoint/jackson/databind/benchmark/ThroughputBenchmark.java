@@ -0,0 +1,67 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Steady state serialization and deserialization of a {@link Payload} whose {@link Payload.Point} members are handled
+ * by jackson 1 serializers and deserializers, compared with the jackson 2 equivalent {@link StockPayload}. Run with
+ * the gc profiler (see {@link AllocationBenchmarks}) to get the allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class ThroughputBenchmark {
+
+	@Param({ "LEGACY", "STOCK" })
+	public Introspectors introspector;
+
+	private ObjectWriter writer;
+
+	private ObjectReader reader;
+
+	private Object payload;
+
+	private byte[] json;
+
+	@Setup
+	public void setUp() throws Exception {
+		Introspectors.verifySameOutput();
+		ObjectMapper mapper = introspector.newMapper();
+		writer = mapper.writerWithType(introspector.payloadType());
+		reader = mapper.reader(introspector.payloadType());
+		payload = introspector.newPayload();
+		json = writer.writeValueAsBytes(payload);
+	}
+
+	@Benchmark
+	public byte[] serialize() throws Exception {
+		return writer.writeValueAsBytes(payload);
+	}
+
+	@Benchmark
+	public Object deserialize() throws Exception {
+		return reader.readValue(json);
+	}
+}
@@ -0,0 +1,34 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.introspect;
+
+/**
+ * Registry for wrapped handler instances (deserializers, key deserializers) created by the
+ * {@link JacksonLegacyIntrospector}. Implementations have to be thread safe as one registry is shared by all lookups of
+ * an introspector (and may be shared by several introspectors).
+ */
+public interface HandlerInstanceRegistry {
+
+	/**
+	 * @param handlerClass
+	 *            the jackson 1 handler class
+	 * @return the registered instance or <code>null</code> if there is none
+	 */
+	Object get(Class<?> handlerClass);
+
+	/**
+	 * registers the wrapped instance for the given jackson 1 handler class.
+	 */
+	void put(Class<?> handlerClass, Object instance);
+
+	/**
+	 * removes the instance registered for the given class (if any)
+	 */
+	void remove(Class<?> handlerClass);
+
+	/**
+	 * removes all registered instances
+	 */
+	void clear();
+}
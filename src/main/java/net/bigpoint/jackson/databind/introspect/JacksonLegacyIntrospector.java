@@ -3,11 +3,21 @@
  */
 package net.bigpoint.jackson.databind.introspect;
 
-import static net.bigpoint.jackson.databind.wrapper.AnnotationWrappingProxy.of;
-
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import net.bigpoint.jackson.databind.metrics.MetricsListener;
+import net.bigpoint.jackson.databind.metrics.NopMetricsListener;
+import net.bigpoint.jackson.databind.wrapper.AnnotationViewCache;
 import net.bigpoint.jackson.databind.wrapper.JsonDeserializer1To2Wrapper;
 import net.bigpoint.jackson.databind.wrapper.JsonSerializer1To2Wrapper;
 import net.bigpoint.jackson.databind.wrapper.KeyDeserializer1To2Wrapper;
@@ -58,6 +68,7 @@ import com.fasterxml.jackson.databind.introspect.NopAnnotationIntrospector;
 import com.fasterxml.jackson.databind.introspect.ObjectIdInfo;
 import com.fasterxml.jackson.databind.introspect.VisibilityChecker;
 import com.fasterxml.jackson.databind.jsontype.NamedType;
+import com.fasterxml.jackson.databind.jsontype.SubtypeResolver;
 import com.fasterxml.jackson.databind.ser.std.RawSerializer;
 
 /**
@@ -72,10 +83,175 @@ public class JacksonLegacyIntrospector extends NopAnnotationIntrospector {
 
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * jackson 2 views of all {@link JsonAutoDetect} annotations, shared by all introspectors.
+	 */
+	private static final AnnotationViewCache<com.fasterxml.jackson.annotation.JsonAutoDetect> AUTO_DETECT_VIEWS =
+			new AnnotationViewCache<com.fasterxml.jackson.annotation.JsonAutoDetect>(
+					com.fasterxml.jackson.annotation.JsonAutoDetect.class);
+
+	/**
+	 * wrapped serializer instances keyed by the jackson 1 serializer class. jackson expects serializers to be
+	 * stateless, so one instance per class is shared by all annotated properties.
+	 */
+	private transient ConcurrentMap<Class<?>, com.fasterxml.jackson.databind.JsonSerializer<Object>> serializerCache;
+
+	/**
+	 * wrapped deserializer and key deserializer instances, shared by all deserializer lookups.
+	 */
+	private transient HandlerInstanceRegistry handlerRegistry;
+
+	/**
+	 * subtype lists of {@link JsonSubTypes} annotations, shared by all subtype lookups and kept as long as this
+	 * introspector.
+	 */
+	private transient SubtypeCache subtypeCache;
+
+	/**
+	 * handler classes that keep per-property state and therefore must be instantiated for every lookup.
+	 */
+	private final Set<Class<?>> statefulHandlers = Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+
+	private transient volatile MetricsListener metrics = NopMetricsListener.instance;
+
+	/**
+	 * inverted, so introspectors serialized before this field existed keep tracking locations
+	 */
+	private volatile boolean locationTrackingDisabled;
+
+	private volatile boolean stacklessExceptions;
+
+	public JacksonLegacyIntrospector() {
+		this(new LRUHandlerInstanceRegistry());
+	}
+
+	/**
+	 * @param handlerRegistry
+	 *            registry used to share deserializer instances
+	 */
+	public JacksonLegacyIntrospector(HandlerInstanceRegistry handlerRegistry) {
+		serializerCache = new ConcurrentHashMap<Class<?>, com.fasterxml.jackson.databind.JsonSerializer<Object>>();
+		subtypeCache = new SubtypeCache();
+		setHandlerInstanceRegistry(handlerRegistry);
+	}
+
+	/**
+	 * @return the registry holding wrapped deserializer instances
+	 */
+	public HandlerInstanceRegistry getHandlerInstanceRegistry() {
+		return handlerRegistry;
+	}
+
+	/**
+	 * Replaces the registry holding wrapped deserializer instances. The registry is not serialized with this
+	 * introspector, a deserialized introspector uses a new {@link LRUHandlerInstanceRegistry}.
+	 */
+	public void setHandlerInstanceRegistry(HandlerInstanceRegistry handlerRegistry) {
+		if (handlerRegistry == null) {
+			throw new IllegalArgumentException("handlerRegistry must not be null");
+		}
+		this.handlerRegistry = handlerRegistry;
+	}
+
+	/**
+	 * @return the listener receiving handler instantiation and wrapper timings
+	 */
+	public MetricsListener getMetricsListener() {
+		return metrics;
+	}
+
+	/**
+	 * Sets the listener receiving handler instantiation and wrapper timings. Handlers created afterwards report to the new
+	 * listener, shared deserializer instances created with another listener are replaced when this introspector looks
+	 * them up again. Serializers and deserializers that a mapper already resolved stay in its jackson 2 caches and keep
+	 * reporting to the previous listener, so set the listener before the mapper is used. The listener is not serialized
+	 * with this introspector.
+	 */
+	public void setMetricsListener(MetricsListener metrics) {
+		if (metrics == null) {
+			throw new IllegalArgumentException("metrics must not be null, use NopMetricsListener.instance");
+		}
+		this.metrics = metrics;
+		serializerCache.clear();
+	}
+
+	/**
+	 * @return <code>false</code> if jackson 1 deserializers see {@link org.codehaus.jackson.JsonLocation#NA} as parser
+	 *         locations
+	 */
+	public boolean isLocationTracking() {
+		return !locationTrackingDisabled;
+	}
+
+	/**
+	 * Disables or enables parser locations for jackson 1 deserializers. Without tracking, the locations of the parser
+	 * handed to jackson 1 deserializers are {@link org.codehaus.jackson.JsonLocation#NA}, which saves their
+	 * translation for mappers where throughput matters more than error positions. Like
+	 * {@link #setMetricsListener(MetricsListener)}, the setting applies to deserializers looked up afterwards, not to the
+	 * ones a mapper already resolved.
+	 */
+	public void setLocationTracking(boolean locationTracking) {
+		this.locationTrackingDisabled = !locationTracking;
+	}
+
+	/**
+	 * @return <code>true</code> if jackson 2 exceptions are translated for jackson 1 handlers without stack traces
+	 */
+	public boolean isStacklessExceptions() {
+		return stacklessExceptions;
+	}
+
+	/**
+	 * Enables or disables stackless exception translation for the handlers of this introspector. Jackson 2 exceptions
+	 * thrown below a jackson 1 handler are translated to jackson 1 exceptions that keep the jackson 2 exception as cause
+	 * but do not fill in a stack trace, which is cheap for handlers that use exceptions for control flow (for example
+	 * trying several formats). Other introspectors and mappers are not affected. Like
+	 * {@link #setMetricsListener(MetricsListener)}, the setting applies to handlers looked up afterwards, not to the ones
+	 * a mapper already resolved.
+	 */
+	public void setStacklessExceptions(boolean stacklessExceptions) {
+		this.stacklessExceptions = stacklessExceptions;
+		serializerCache.clear();
+	}
+
+	/**
+	 * Marks the given jackson 1 handler class as stateful. Stateful handlers are never cached, a new instance is created
+	 * every time jackson 2 asks for one.
+	 * 
+	 * @param handlerClass
+	 */
+	public void registerStatefulHandler(Class<?> handlerClass) {
+		statefulHandlers.add(handlerClass);
+		serializerCache.remove(handlerClass);
+		handlerRegistry.remove(handlerClass);
+	}
+
+	/**
+	 * @return <code>true</code> if instances of the given handler class must not be shared
+	 */
+	public boolean isStatefulHandler(Class<?> handlerClass) {
+		return statefulHandlers.contains(handlerClass);
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		serializerCache = new ConcurrentHashMap<Class<?>, com.fasterxml.jackson.databind.JsonSerializer<Object>>();
+		handlerRegistry = new LRUHandlerInstanceRegistry();
+		subtypeCache = new SubtypeCache();
+		metrics = NopMetricsListener.instance;
+	}
+
 	@Override
 	public VisibilityChecker<?> findAutoDetectVisibility(AnnotatedClass ac, VisibilityChecker<?> checker) {
 		JsonAutoDetect ann = ac.getAnnotation(JsonAutoDetect.class);
-		return (ann == null) ? checker : checker.with(of(com.fasterxml.jackson.annotation.JsonAutoDetect.class, ann));
+		return (ann == null) ? checker : checker.with(AUTO_DETECT_VIEWS.viewOf(ann));
+	}
+
+	/**
+	 * @return the jvm wide cache of adapted {@link JsonAutoDetect} annotations, e.g. to monitor its hit rate
+	 */
+	public static AnnotationViewCache<com.fasterxml.jackson.annotation.JsonAutoDetect> getAutoDetectViewCache() {
+		return AUTO_DETECT_VIEWS;
 	}
 
 	@Override
@@ -413,15 +589,35 @@ public class JacksonLegacyIntrospector extends NopAnnotationIntrospector {
 	@Override
 	public List<NamedType> findSubtypes(Annotated a) {
 		JsonSubTypes t = a.getAnnotation(JsonSubTypes.class);
-		if (t == null) {
-			return null;
-		}
-		JsonSubTypes.Type[] types = t.value();
-		ArrayList<NamedType> result = new ArrayList<NamedType>(types.length);
-		for (JsonSubTypes.Type type : types) {
-			result.add(new NamedType(type.value(), type.name()));
+		return (t == null) ? null : subtypeCache.subtypes(t);
+	}
+
+	/**
+	 * Registers all subtypes reachable from the given root types through class level {@link JsonSubTypes} annotations
+	 * (including the subtypes of subtypes) with the given resolver, e.g. the one of
+	 * <code>ObjectMapper.getSubtypeResolver()</code>. Mix-ins are not taken into account.
+	 * 
+	 * @return the registered subtypes
+	 */
+	public List<NamedType> registerSubtypes(SubtypeResolver resolver, Class<?>... roots) {
+		List<NamedType> registered = new ArrayList<NamedType>();
+		Set<Class<?>> visited = new HashSet<Class<?>>();
+		ArrayDeque<Class<?>> pending = new ArrayDeque<Class<?>>(Arrays.asList(roots));
+		while (!pending.isEmpty()) {
+			Class<?> type = pending.poll();
+			if (!visited.add(type)) {
+				continue;
+			}
+			JsonSubTypes t = type.getAnnotation(JsonSubTypes.class);
+			if (t != null) {
+				for (NamedType subtype : subtypeCache.subtypes(t)) {
+					registered.add(subtype);
+					pending.add(subtype.getType());
+				}
+			}
 		}
-		return result;
+		resolver.registerSubtypes(registered.toArray(new NamedType[registered.size()]));
+		return registered;
 	}
 
 	/*
@@ -498,11 +694,7 @@ public class JacksonLegacyIntrospector extends NopAnnotationIntrospector {
 		if (ann != null) {
 			Class<? extends JsonSerializer<?>> serClass = ann.using();
 			if (serClass != JsonSerializer.None.class) {
-				try {
-					return new JsonSerializer1To2Wrapper<Object>((JsonSerializer<Object>) serClass.newInstance());
-				} catch (Exception e) {
-					throw new RuntimeException(e);
-				}
+				return serializerInstance(serClass);
 			}
 		}
 
@@ -525,11 +717,7 @@ public class JacksonLegacyIntrospector extends NopAnnotationIntrospector {
 		if (ann != null) {
 			Class<? extends JsonSerializer<?>> serClass = ann.keyUsing();
 			if (serClass != JsonSerializer.None.class) {
-				try {
-					return new JsonSerializer1To2Wrapper<Object>((JsonSerializer<Object>) serClass.newInstance());
-				} catch (Exception e) {
-					throw new RuntimeException(e);
-				}
+				return serializerInstance(serClass);
 			}
 		}
 		return null;
@@ -541,11 +729,7 @@ public class JacksonLegacyIntrospector extends NopAnnotationIntrospector {
 		if (ann != null) {
 			Class<? extends JsonSerializer<?>> serClass = ann.contentUsing();
 			if (serClass != JsonSerializer.None.class) {
-				try {
-					return new JsonSerializer1To2Wrapper<Object>((JsonSerializer<Object>) serClass.newInstance());
-				} catch (Exception e) {
-					throw new RuntimeException(e);
-				}
+				return serializerInstance(serClass);
 			}
 		}
 		return null;
@@ -563,11 +747,7 @@ public class JacksonLegacyIntrospector extends NopAnnotationIntrospector {
 		if (ann != null) {
 			Class<? extends JsonDeserializer<?>> deserClass = ann.using();
 			if (deserClass != JsonDeserializer.None.class) {
-				try {
-					return new JsonDeserializer1To2Wrapper<Object>((JsonDeserializer<Object>) deserClass.newInstance());
-				} catch (Exception e) {
-					throw new RuntimeException(e);
-				}
+				return handlerInstance(deserClass);
 			}
 		}
 		// 31-Jan-2010, tatus: @JsonUseDeserializer removed as of 1.5
@@ -580,11 +760,7 @@ public class JacksonLegacyIntrospector extends NopAnnotationIntrospector {
 		if (ann != null) {
 			Class<? extends KeyDeserializer> deserClass = ann.keyUsing();
 			if (deserClass != KeyDeserializer.None.class) {
-				try {
-					return new KeyDeserializer1To2Wrapper(deserClass.newInstance());
-				} catch (Exception e) {
-					throw new RuntimeException(e);
-				}
+				return handlerInstance(deserClass);
 			}
 		}
 		return null;
@@ -596,16 +772,107 @@ public class JacksonLegacyIntrospector extends NopAnnotationIntrospector {
 		if (ann != null) {
 			Class<? extends JsonDeserializer<?>> deserClass = ann.contentUsing();
 			if (deserClass != JsonDeserializer.None.class) {
-				try {
-					return new JsonDeserializer1To2Wrapper<Object>((JsonDeserializer<Object>) deserClass.newInstance());
-				} catch (Exception e) {
-					throw new RuntimeException(e);
-				}
+				return handlerInstance(deserClass);
 			}
 		}
 		return null;
 	}
 
+	/**
+	 * returns the (possibly shared) wrapped instance of the given jackson 1 serializer class.
+	 */
+	protected com.fasterxml.jackson.databind.JsonSerializer<Object> serializerInstance(
+			Class<? extends JsonSerializer<?>> serClass) {
+		if (statefulHandlers.contains(serClass)) {
+			return createSerializer(serClass);
+		}
+		com.fasterxml.jackson.databind.JsonSerializer<Object> ser = serializerCache.get(serClass);
+		if (ser == null) {
+			ser = createSerializer(serClass);
+			com.fasterxml.jackson.databind.JsonSerializer<Object> existing = serializerCache.putIfAbsent(serClass, ser);
+			if (existing != null) {
+				ser = existing;
+			}
+		}
+		return ser;
+	}
+
+	@SuppressWarnings("unchecked")
+	private com.fasterxml.jackson.databind.JsonSerializer<Object> createSerializer(
+			Class<? extends JsonSerializer<?>> serClass) {
+		MetricsListener metrics = this.metrics;
+		boolean timed = NopMetricsListener.isEnabled(metrics);
+		long start = timed ? System.nanoTime() : 0L;
+		com.fasterxml.jackson.databind.JsonSerializer<Object> ser;
+		try {
+			// a new instance is never a wrapper, there is nothing to unwrap
+			ser = new JsonSerializer1To2Wrapper<Object>((JsonSerializer<Object>) serClass.newInstance(), metrics,
+					stacklessExceptions);
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+		if (timed) {
+			metrics.handlerCreated(serClass, System.nanoTime() - start);
+		}
+		return ser;
+	}
+
+	/**
+	 * returns the (possibly shared) wrapped instance of the given jackson 1 deserializer or key deserializer class.
+	 * Registered instances wrapped with other settings (registered by another introspector sharing the registry or before
+	 * a setting changed) are replaced.
+	 */
+	protected Object handlerInstance(Class<?> handlerClass) {
+		if (statefulHandlers.contains(handlerClass)) {
+			return createHandler(handlerClass);
+		}
+		Object handler = handlerRegistry.get(handlerClass);
+		if (handler == null || !hasCurrentSettings(handler)) {
+			handler = createHandler(handlerClass);
+			handlerRegistry.put(handlerClass, handler);
+		}
+		return handler;
+	}
+
+	/**
+	 * @return <code>true</code> if the given wrapped handler uses the listener and settings of this introspector
+	 */
+	private boolean hasCurrentSettings(Object handler) {
+		if (handler instanceof KeyDeserializer1To2Wrapper) {
+			return ((KeyDeserializer1To2Wrapper) handler).getMetricsListener() == metrics;
+		}
+		if (handler instanceof JsonDeserializer1To2Wrapper) {
+			JsonDeserializer1To2Wrapper<?> wrapper = (JsonDeserializer1To2Wrapper<?>) handler;
+			return wrapper.getMetricsListener() == metrics && wrapper.isLocationTracking() == !locationTrackingDisabled
+					&& wrapper.isStacklessExceptions() == stacklessExceptions;
+		}
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Object createHandler(Class<?> handlerClass) {
+		MetricsListener metrics = this.metrics;
+		boolean timed = NopMetricsListener.isEnabled(metrics);
+		long start = timed ? System.nanoTime() : 0L;
+		Object instance;
+		try {
+			instance = handlerClass.newInstance();
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+		Object handler;
+		if (instance instanceof KeyDeserializer) {
+			handler = new KeyDeserializer1To2Wrapper((KeyDeserializer) instance, metrics);
+		} else {
+			handler = new JsonDeserializer1To2Wrapper<Object>((JsonDeserializer<Object>) instance, metrics,
+					!locationTrackingDisabled, stacklessExceptions);
+		}
+		if (timed) {
+			metrics.handlerCreated(handlerClass, System.nanoTime() - start);
+		}
+		return handler;
+	}
+
 	@Override
 	public Object findFilterId(AnnotatedClass ac) {
 		JsonFilter ann = ac.getAnnotation(JsonFilter.class);
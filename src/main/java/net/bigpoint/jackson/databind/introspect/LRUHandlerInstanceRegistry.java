@@ -0,0 +1,196 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.introspect;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Default {@link HandlerInstanceRegistry}. The registry is bounded and evicts the least recently used entry once it is
+ * full. Handler classes are only weakly referenced. Instances of handler classes that can be unloaded before this
+ * registry (classes of other class loaders than the one of this library or its parents) are weakly referenced as well:
+ * an instance references its class and with it the class loader, so holding it any stronger would keep the class loader
+ * of a redeployed application alive. Those instances stay registered as long as someone else (usually the cache of an
+ * <code>ObjectMapper</code>) uses them.
+ */
+public class LRUHandlerInstanceRegistry implements HandlerInstanceRegistry {
+
+	public static final int DEFAULT_MAX_ENTRIES = 4096;
+
+	private final ReferenceQueue<Class<?>> queue = new ReferenceQueue<Class<?>>();
+
+	/**
+	 * values are the instances or {@link WeakValue}s referencing them
+	 */
+	private final LinkedHashMap<Object, Object> entries;
+
+	/**
+	 * reused for lookups, only accessed while holding the lock of this registry
+	 */
+	private final LookupKey lookupKey = new LookupKey();
+
+	public LRUHandlerInstanceRegistry() {
+		this(DEFAULT_MAX_ENTRIES);
+	}
+
+	/**
+	 * @param maxEntries
+	 *            maximum number of instances kept by this registry
+	 */
+	public LRUHandlerInstanceRegistry(final int maxEntries) {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("maxEntries must be positive");
+		}
+		entries = new LinkedHashMap<Object, Object>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	@Override
+	public synchronized Object get(Class<?> handlerClass) {
+		expungeStaleEntries();
+		lookupKey.handlerClass = handlerClass;
+		try {
+			Object value = entries.get(lookupKey);
+			if (!(value instanceof WeakValue)) {
+				return value;
+			}
+			Object instance = ((WeakValue) value).get();
+			if (instance == null) {
+				entries.remove(lookupKey);
+			}
+			return instance;
+		} finally {
+			lookupKey.handlerClass = null;
+		}
+	}
+
+	@Override
+	public synchronized void put(Class<?> handlerClass, Object instance) {
+		expungeStaleEntries();
+		Object value = isUnloadable(handlerClass) ? new WeakValue(instance) : instance;
+		entries.put(new ClassKey(handlerClass, queue), value);
+	}
+
+	@Override
+	public synchronized void remove(Class<?> handlerClass) {
+		lookupKey.handlerClass = handlerClass;
+		try {
+			entries.remove(lookupKey);
+		} finally {
+			lookupKey.handlerClass = null;
+		}
+	}
+
+	@Override
+	public synchronized void clear() {
+		entries.clear();
+		while (queue.poll() != null) {
+			// drain
+		}
+	}
+
+	/**
+	 * @return the number of registered instances
+	 */
+	public synchronized int size() {
+		expungeStaleEntries();
+		return entries.size();
+	}
+
+	/**
+	 * @return <code>true</code> if the class is not loaded by the class loader of this registry or one of its parents
+	 */
+	private static boolean isUnloadable(Class<?> handlerClass) {
+		ClassLoader loader = handlerClass.getClassLoader();
+		if (loader == null) {
+			return false;
+		}
+		for (ClassLoader own = LRUHandlerInstanceRegistry.class.getClassLoader(); own != null; own = own.getParent()) {
+			if (own == loader) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void expungeStaleEntries() {
+		for (Reference<? extends Class<?>> ref = queue.poll(); ref != null; ref = queue.poll()) {
+			entries.remove(ref);
+		}
+	}
+
+	/**
+	 * weakly held instance, distinguishes weak values from registered instances that happen to be references
+	 */
+	private static final class WeakValue extends WeakReference<Object> {
+		WeakValue(Object instance) {
+			super(instance);
+		}
+	}
+
+	/**
+	 * map key that holds its class weakly. Equality is identity of the referenced class.
+	 */
+	private static final class ClassKey extends WeakReference<Class<?>> {
+		private final int hash;
+
+		ClassKey(Class<?> handlerClass, ReferenceQueue<Class<?>> queue) {
+			super(handlerClass, queue);
+			hash = System.identityHashCode(handlerClass);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (o == this) {
+				return true;
+			}
+			if (o instanceof LookupKey) {
+				return ((LookupKey) o).handlerClass == get();
+			}
+			// cleared keys are only equal to themselves so they can still be expunged
+			if (o instanceof ClassKey) {
+				Class<?> cls = get();
+				return cls != null && cls == ((ClassKey) o).get();
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * strong key used to look up {@link ClassKey} entries without allocating.
+	 */
+	private static final class LookupKey {
+		Class<?> handlerClass;
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(handlerClass);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (o == this) {
+				return true;
+			}
+			if (o instanceof ClassKey) {
+				return ((ClassKey) o).get() == handlerClass;
+			}
+			return false;
+		}
+	}
+}
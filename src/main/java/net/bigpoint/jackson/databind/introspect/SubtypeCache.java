@@ -0,0 +1,48 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.introspect;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.jackson.annotate.JsonSubTypes;
+
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+
+/**
+ * Memoizes the subtype lists of {@link JsonSubTypes} annotations. The jvm hands out one annotation instance per
+ * annotated element, so keys are compared by identity.
+ * 
+ * Annotations and lists are held strongly, the cache lives as long as the introspector owning it and thereby as long as
+ * the mapper using that introspector. Weak keys would not help: the subtype classes of a list keep their class loader
+ * reachable and with it the annotated class and its annotation. Like the serializer and deserializer caches of the
+ * mapper, entries of classes from a discarded class loader are released together with the mapper.
+ * 
+ * The lists are unmodifiable and shared by all callers. {@link NamedType} itself is mutable, jackson 2 does not change
+ * the instances returned by the introspector and neither must other callers.
+ */
+final class SubtypeCache {
+
+	private final Map<JsonSubTypes, List<NamedType>> lists = new IdentityHashMap<JsonSubTypes, List<NamedType>>();
+
+	/**
+	 * @return the subtypes listed by the given annotation
+	 */
+	synchronized List<NamedType> subtypes(JsonSubTypes annotation) {
+		List<NamedType> subtypes = lists.get(annotation);
+		if (subtypes == null) {
+			JsonSubTypes.Type[] types = annotation.value();
+			NamedType[] namedTypes = new NamedType[types.length];
+			for (int i = 0; i < types.length; ++i) {
+				namedTypes[i] = new NamedType(types[i].value(), types[i].name());
+			}
+			subtypes = Collections.unmodifiableList(Arrays.asList(namedTypes));
+			lists.put(annotation, subtypes);
+		}
+		return subtypes;
+	}
+}
@@ -0,0 +1,539 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.metrics;
+
+import java.util.List;
+
+import net.bigpoint.jackson.databind.introspect.HandlerInstanceRegistry;
+import net.bigpoint.jackson.databind.introspect.JacksonLegacyIntrospector;
+import net.bigpoint.jackson.databind.introspect.LRUHandlerInstanceRegistry;
+
+import com.fasterxml.jackson.annotation.JsonFormat.Value;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.PropertyName;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize.Typing;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClass;
+import com.fasterxml.jackson.databind.introspect.AnnotatedField;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMethod;
+import com.fasterxml.jackson.databind.introspect.AnnotatedParameter;
+import com.fasterxml.jackson.databind.introspect.ObjectIdInfo;
+import com.fasterxml.jackson.databind.introspect.VisibilityChecker;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+
+/**
+ * {@link JacksonLegacyIntrospector} that reports the time spent in every introspection method to its
+ * {@link MetricsListener}, in addition to the handler and wrapper timings of the base class. Use the plain
+ * introspector when introspection timings are not needed, it does not take any. A deserialized instance reports to
+ * {@link NopMetricsListener#instance} until a listener is set.
+ */
+public class InstrumentedJacksonLegacyIntrospector extends JacksonLegacyIntrospector {
+
+	private static final long serialVersionUID = 1L;
+
+	public InstrumentedJacksonLegacyIntrospector(MetricsListener metrics) {
+		this(metrics, new LRUHandlerInstanceRegistry());
+	}
+
+	/**
+	 * @param handlerRegistry
+	 *            registry used to share deserializer instances
+	 */
+	public InstrumentedJacksonLegacyIntrospector(MetricsListener metrics, HandlerInstanceRegistry handlerRegistry) {
+		super(handlerRegistry);
+		setMetricsListener(metrics);
+	}
+
+	@Override
+	public VisibilityChecker<?> findAutoDetectVisibility(AnnotatedClass ac, VisibilityChecker<?> checker) {
+		long start = System.nanoTime();
+		try {
+			return super.findAutoDetectVisibility(ac, checker);
+		} finally {
+			getMetricsListener().introspected("findAutoDetectVisibility", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public String findEnumValue(Enum<?> value) {
+		long start = System.nanoTime();
+		try {
+			return super.findEnumValue(value);
+		} finally {
+			getMetricsListener().introspected("findEnumValue", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Boolean findIgnoreUnknownProperties(AnnotatedClass ac) {
+		long start = System.nanoTime();
+		try {
+			return super.findIgnoreUnknownProperties(ac);
+		} finally {
+			getMetricsListener().introspected("findIgnoreUnknownProperties", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public String[] findPropertiesToIgnore(Annotated ac) {
+		long start = System.nanoTime();
+		try {
+			return super.findPropertiesToIgnore(ac);
+		} finally {
+			getMetricsListener().introspected("findPropertiesToIgnore", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public ReferenceProperty findReferenceType(AnnotatedMember member) {
+		long start = System.nanoTime();
+		try {
+			return super.findReferenceType(member);
+		} finally {
+			getMetricsListener().introspected("findReferenceType", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public PropertyName findRootName(AnnotatedClass ac) {
+		long start = System.nanoTime();
+		try {
+			return super.findRootName(ac);
+		} finally {
+			getMetricsListener().introspected("findRootName", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Class<?> findDeserializationContentType(Annotated am, JavaType baseContentType) {
+		long start = System.nanoTime();
+		try {
+			return super.findDeserializationContentType(am, baseContentType);
+		} finally {
+			getMetricsListener().introspected("findDeserializationContentType", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Class<?> findDeserializationKeyType(Annotated am, JavaType baseKeyType) {
+		long start = System.nanoTime();
+		try {
+			return super.findDeserializationKeyType(am, baseKeyType);
+		} finally {
+			getMetricsListener().introspected("findDeserializationKeyType", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Class<?> findDeserializationType(Annotated am, JavaType baseType) {
+		long start = System.nanoTime();
+		try {
+			return super.findDeserializationType(am, baseType);
+		} finally {
+			getMetricsListener().introspected("findDeserializationType", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public PropertyName findNameForDeserialization(Annotated a) {
+		long start = System.nanoTime();
+		try {
+			return super.findNameForDeserialization(a);
+		} finally {
+			getMetricsListener().introspected("findNameForDeserialization", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public String findDeserializationName(AnnotatedField af) {
+		long start = System.nanoTime();
+		try {
+			return super.findDeserializationName(af);
+		} finally {
+			getMetricsListener().introspected("findDeserializationName", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public String findDeserializationName(AnnotatedMethod am) {
+		long start = System.nanoTime();
+		try {
+			return super.findDeserializationName(am);
+		} finally {
+			getMetricsListener().introspected("findDeserializationName", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public String findDeserializationName(AnnotatedParameter param) {
+		long start = System.nanoTime();
+		try {
+			return super.findDeserializationName(param);
+		} finally {
+			getMetricsListener().introspected("findDeserializationName", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Class<?> findSerializationContentType(Annotated am, JavaType baseType) {
+		long start = System.nanoTime();
+		try {
+			return super.findSerializationContentType(am, baseType);
+		} finally {
+			getMetricsListener().introspected("findSerializationContentType", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Include findSerializationInclusion(Annotated a, Include defValue) {
+		long start = System.nanoTime();
+		try {
+			return super.findSerializationInclusion(a, defValue);
+		} finally {
+			getMetricsListener().introspected("findSerializationInclusion", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Class<?> findSerializationKeyType(Annotated am, JavaType baseType) {
+		long start = System.nanoTime();
+		try {
+			return super.findSerializationKeyType(am, baseType);
+		} finally {
+			getMetricsListener().introspected("findSerializationKeyType", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public String[] findSerializationPropertyOrder(AnnotatedClass ac) {
+		long start = System.nanoTime();
+		try {
+			return super.findSerializationPropertyOrder(ac);
+		} finally {
+			getMetricsListener().introspected("findSerializationPropertyOrder", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Boolean findSerializationSortAlphabetically(AnnotatedClass ac) {
+		long start = System.nanoTime();
+		try {
+			return super.findSerializationSortAlphabetically(ac);
+		} finally {
+			getMetricsListener().introspected("findSerializationSortAlphabetically", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Class<?> findSerializationType(Annotated a) {
+		long start = System.nanoTime();
+		try {
+			return super.findSerializationType(a);
+		} finally {
+			getMetricsListener().introspected("findSerializationType", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Typing findSerializationTyping(Annotated a) {
+		long start = System.nanoTime();
+		try {
+			return super.findSerializationTyping(a);
+		} finally {
+			getMetricsListener().introspected("findSerializationTyping", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public PropertyName findNameForSerialization(Annotated a) {
+		long start = System.nanoTime();
+		try {
+			return super.findNameForSerialization(a);
+		} finally {
+			getMetricsListener().introspected("findNameForSerialization", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public String findSerializationName(AnnotatedField af) {
+		long start = System.nanoTime();
+		try {
+			return super.findSerializationName(af);
+		} finally {
+			getMetricsListener().introspected("findSerializationName", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public String findSerializationName(AnnotatedMethod am) {
+		long start = System.nanoTime();
+		try {
+			return super.findSerializationName(am);
+		} finally {
+			getMetricsListener().introspected("findSerializationName", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public boolean hasAnyGetterAnnotation(AnnotatedMethod am) {
+		long start = System.nanoTime();
+		try {
+			return super.hasAnyGetterAnnotation(am);
+		} finally {
+			getMetricsListener().introspected("hasAnyGetterAnnotation", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public boolean hasAnySetterAnnotation(AnnotatedMethod am) {
+		long start = System.nanoTime();
+		try {
+			return super.hasAnySetterAnnotation(am);
+		} finally {
+			getMetricsListener().introspected("hasAnySetterAnnotation", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public boolean hasAsValueAnnotation(AnnotatedMethod am) {
+		long start = System.nanoTime();
+		try {
+			return super.hasAsValueAnnotation(am);
+		} finally {
+			getMetricsListener().introspected("hasAsValueAnnotation", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public boolean hasCreatorAnnotation(Annotated a) {
+		long start = System.nanoTime();
+		try {
+			return super.hasCreatorAnnotation(a);
+		} finally {
+			getMetricsListener().introspected("hasCreatorAnnotation", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public boolean hasIgnoreMarker(AnnotatedMember m) {
+		long start = System.nanoTime();
+		try {
+			return super.hasIgnoreMarker(m);
+		} finally {
+			getMetricsListener().introspected("hasIgnoreMarker", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Boolean isIgnorableType(AnnotatedClass ac) {
+		long start = System.nanoTime();
+		try {
+			return super.isIgnorableType(ac);
+		} finally {
+			getMetricsListener().introspected("isIgnorableType", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public String findTypeName(AnnotatedClass ac) {
+		long start = System.nanoTime();
+		try {
+			return super.findTypeName(ac);
+		} finally {
+			getMetricsListener().introspected("findTypeName", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public List<NamedType> findSubtypes(Annotated a) {
+		long start = System.nanoTime();
+		try {
+			return super.findSubtypes(a);
+		} finally {
+			getMetricsListener().introspected("findSubtypes", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Boolean hasRequiredMarker(AnnotatedMember m) {
+		long start = System.nanoTime();
+		try {
+			return super.hasRequiredMarker(m);
+		} finally {
+			getMetricsListener().introspected("hasRequiredMarker", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Object findNamingStrategy(AnnotatedClass ac) {
+		long start = System.nanoTime();
+		try {
+			return super.findNamingStrategy(ac);
+		} finally {
+			getMetricsListener().introspected("findNamingStrategy", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Boolean isTypeId(AnnotatedMember member) {
+		long start = System.nanoTime();
+		try {
+			return super.isTypeId(member);
+		} finally {
+			getMetricsListener().introspected("isTypeId", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Value findFormat(Annotated memberOrClass) {
+		long start = System.nanoTime();
+		try {
+			return super.findFormat(memberOrClass);
+		} finally {
+			getMetricsListener().introspected("findFormat", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public ObjectIdInfo findObjectIdInfo(Annotated ann) {
+		long start = System.nanoTime();
+		try {
+			return super.findObjectIdInfo(ann);
+		} finally {
+			getMetricsListener().introspected("findObjectIdInfo", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public ObjectIdInfo findObjectReferenceInfo(Annotated ann, ObjectIdInfo objectIdInfo) {
+		long start = System.nanoTime();
+		try {
+			return super.findObjectReferenceInfo(ann, objectIdInfo);
+		} finally {
+			getMetricsListener().introspected("findObjectReferenceInfo", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Class<?> findPOJOBuilder(AnnotatedClass ac) {
+		long start = System.nanoTime();
+		try {
+			return super.findPOJOBuilder(ac);
+		} finally {
+			getMetricsListener().introspected("findPOJOBuilder", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder.Value findPOJOBuilderConfig(AnnotatedClass ac) {
+		long start = System.nanoTime();
+		try {
+			return super.findPOJOBuilderConfig(ac);
+		} finally {
+			getMetricsListener().introspected("findPOJOBuilderConfig", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Class<?>[] findViews(Annotated a) {
+		long start = System.nanoTime();
+		try {
+			return super.findViews(a);
+		} finally {
+			getMetricsListener().introspected("findViews", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public PropertyName findWrapperName(Annotated ann) {
+		long start = System.nanoTime();
+		try {
+			return super.findWrapperName(ann);
+		} finally {
+			getMetricsListener().introspected("findWrapperName", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Object findSerializer(Annotated am) {
+		long start = System.nanoTime();
+		try {
+			return super.findSerializer(am);
+		} finally {
+			getMetricsListener().introspected("findSerializer", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Object findKeySerializer(Annotated am) {
+		long start = System.nanoTime();
+		try {
+			return super.findKeySerializer(am);
+		} finally {
+			getMetricsListener().introspected("findKeySerializer", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Object findContentSerializer(Annotated am) {
+		long start = System.nanoTime();
+		try {
+			return super.findContentSerializer(am);
+		} finally {
+			getMetricsListener().introspected("findContentSerializer", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Object findDeserializer(Annotated am) {
+		long start = System.nanoTime();
+		try {
+			return super.findDeserializer(am);
+		} finally {
+			getMetricsListener().introspected("findDeserializer", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Object findKeyDeserializer(Annotated am) {
+		long start = System.nanoTime();
+		try {
+			return super.findKeyDeserializer(am);
+		} finally {
+			getMetricsListener().introspected("findKeyDeserializer", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Object findContentDeserializer(Annotated am) {
+		long start = System.nanoTime();
+		try {
+			return super.findContentDeserializer(am);
+		} finally {
+			getMetricsListener().introspected("findContentDeserializer", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Object findFilterId(AnnotatedClass ac) {
+		long start = System.nanoTime();
+		try {
+			return super.findFilterId(ac);
+		} finally {
+			getMetricsListener().introspected("findFilterId", System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Object findInjectableValueId(AnnotatedMember m) {
+		long start = System.nanoTime();
+		try {
+			return super.findInjectableValueId(m);
+		} finally {
+			getMetricsListener().introspected("findInjectableValueId", System.nanoTime() - start);
+		}
+	}
+}
@@ -0,0 +1,36 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.metrics;
+
+/**
+ * Receives counts and timings from the legacy introspector and the 1-to-2 wrappers. Every call reports one event, all
+ * durations are in nanoseconds. Implementations have to be thread safe and should be cheap, they are called on the
+ * serialization path. Use {@link NopMetricsListener#instance} to disable reporting.
+ */
+public interface MetricsListener {
+
+	/**
+	 * an introspector method has been called (only reported by {@link InstrumentedJacksonLegacyIntrospector})
+	 * 
+	 * @param method
+	 *            name of the introspector method
+	 */
+	void introspected(String method, long nanos);
+
+	/**
+	 * a jackson 1 handler (serializer, deserializer or key deserializer) has been instantiated and wrapped
+	 */
+	void handlerCreated(Class<?> handlerClass, long nanos);
+
+	/**
+	 * a jackson 1 serializer has serialized a value. The time includes nested legacy serializers.
+	 */
+	void serialized(Class<?> serializerClass, long nanos);
+
+	/**
+	 * a jackson 1 deserializer or key deserializer has deserialized a value. The time includes nested legacy
+	 * deserializers.
+	 */
+	void deserialized(Class<?> deserializerClass, long nanos);
+}
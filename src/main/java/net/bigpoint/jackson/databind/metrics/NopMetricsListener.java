@@ -0,0 +1,38 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.metrics;
+
+/**
+ * Listener that ignores all events. Callers compare against {@link #instance} to skip taking timings at all.
+ */
+public final class NopMetricsListener implements MetricsListener {
+
+	public static final NopMetricsListener instance = new NopMetricsListener();
+
+	private NopMetricsListener() {
+	}
+
+	/**
+	 * @return <code>true</code> if events for the given listener have to be measured
+	 */
+	public static boolean isEnabled(MetricsListener listener) {
+		return listener != instance;
+	}
+
+	@Override
+	public void introspected(String method, long nanos) {
+	}
+
+	@Override
+	public void handlerCreated(Class<?> handlerClass, long nanos) {
+	}
+
+	@Override
+	public void serialized(Class<?> serializerClass, long nanos) {
+	}
+
+	@Override
+	public void deserialized(Class<?> deserializerClass, long nanos) {
+	}
+}
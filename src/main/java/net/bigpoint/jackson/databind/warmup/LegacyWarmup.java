@@ -0,0 +1,301 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+
+/**
+ * Resolves the jackson 2 serializers and deserializers of classes ahead of time, so the first request after a deploy
+ * does not pay for introspection and handler instantiation. The resolved instances end up in the caches of the given
+ * {@link ObjectMapper}, which must be fully configured (modules, introspector, features) before warming up.
+ * 
+ * <pre>
+ * WarmupReport report = new LegacyWarmup(mapper, executor).warmUpPackage(&quot;com.example.dto&quot;,
+ * 		getClass().getClassLoader());
+ * </pre>
+ */
+public class LegacyWarmup {
+
+	private static final String LEGACY_PACKAGE = "org.codehaus.jackson.";
+
+	private final ObjectMapper mapper;
+
+	private final ExecutorService executor;
+
+	/**
+	 * warms up on a pool with one thread per processor, the pool is shut down after every run
+	 */
+	public LegacyWarmup(ObjectMapper mapper) {
+		this(mapper, null);
+	}
+
+	/**
+	 * @param executor
+	 *            runs the per class tasks, it is not shut down by this class
+	 */
+	public LegacyWarmup(ObjectMapper mapper, ExecutorService executor) {
+		if (mapper == null) {
+			throw new IllegalArgumentException("mapper must not be null");
+		}
+		this.mapper = mapper;
+		this.executor = executor;
+	}
+
+	/**
+	 * warms up all classes below the given package that carry jackson 1 annotations, see
+	 * {@link #findLegacyAnnotatedClasses(String, ClassLoader)}
+	 */
+	public WarmupReport warmUpPackage(String packagePrefix, ClassLoader loader) {
+		return warmUpClassNames(findClassNames(packagePrefix, loader), loader, true);
+	}
+
+	/**
+	 * warms up the given classes, whether annotated or not
+	 */
+	public WarmupReport warmUp(Collection<Class<?>> types) {
+		List<Callable<Result>> tasks = new ArrayList<Callable<Result>>(types.size());
+		for (Class<?> type : types) {
+			tasks.add(new WarmupTask(type.getName(), type, null, false));
+		}
+		return run(tasks);
+	}
+
+	/**
+	 * @return all concrete and abstract classes below the given package (including sub packages) that carry a jackson
+	 *         1 annotation on the class or one of its declared members
+	 */
+	public static List<Class<?>> findLegacyAnnotatedClasses(String packagePrefix, ClassLoader loader) {
+		List<Class<?>> result = new ArrayList<Class<?>>();
+		for (String className : findClassNames(packagePrefix, loader)) {
+			try {
+				Class<?> type = Class.forName(className, false, loader);
+				if (isWarmupCandidate(type)) {
+					result.add(type);
+				}
+			} catch (ClassNotFoundException e) {
+				// listed but not loadable, ignored like classes with missing dependencies
+			} catch (LinkageError e) {
+				// missing dependency
+			}
+		}
+		return result;
+	}
+
+	private WarmupReport warmUpClassNames(Collection<String> classNames, ClassLoader loader, boolean annotatedOnly) {
+		List<Callable<Result>> tasks = new ArrayList<Callable<Result>>(classNames.size());
+		for (String className : classNames) {
+			tasks.add(new WarmupTask(className, null, loader, annotatedOnly));
+		}
+		return run(tasks);
+	}
+
+	private WarmupReport run(List<Callable<Result>> tasks) {
+		ExecutorService executor = this.executor;
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		}
+		long start = System.nanoTime();
+		Map<String, Long> timings = new TreeMap<String, Long>();
+		Map<String, Throwable> failures = new TreeMap<String, Throwable>();
+		try {
+			for (Future<Result> future : executor.invokeAll(tasks)) {
+				Result result = future.get();
+				if (result != null) {
+					timings.put(result.className, result.nanos);
+					if (result.failure != null) {
+						failures.put(result.className, result.failure);
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			// tasks catch everything
+			throw new RuntimeException(e.getCause());
+		} finally {
+			if (executor != this.executor) {
+				executor.shutdown();
+			}
+		}
+		return new WarmupReport(timings, failures, System.nanoTime() - start);
+	}
+
+	/**
+	 * resolves the root serializer and deserializer of the given class, both are kept in the caches of the mapper.
+	 */
+	protected void warmUp(Class<?> type) throws Exception {
+		DefaultSerializerProvider provider = ((DefaultSerializerProvider) mapper.getSerializerProvider())
+				.createInstance(mapper.getSerializationConfig(), mapper.getSerializerFactory());
+		provider.findTypedValueSerializer(type, true, null);
+		DefaultDeserializationContext context = ((DefaultDeserializationContext) mapper.getDeserializationContext())
+				.createInstance(mapper.getDeserializationConfig(), null, null);
+		context.findRootValueDeserializer(mapper.constructType(type));
+	}
+
+	private static boolean isWarmupCandidate(Class<?> type) {
+		if (type.isAnnotation() || type.isAnonymousClass() || type.isLocalClass() || type.isSynthetic()
+				|| Modifier.isPrivate(type.getModifiers())) {
+			return false;
+		}
+		if (hasLegacyAnnotation(type.getDeclaredAnnotations())) {
+			return true;
+		}
+		return hasLegacyAnnotation(type.getDeclaredFields()) || hasLegacyAnnotation(type.getDeclaredMethods())
+				|| hasLegacyAnnotation(type.getDeclaredConstructors());
+	}
+
+	private static boolean hasLegacyAnnotation(AccessibleObject[] members) {
+		for (AccessibleObject member : members) {
+			if (hasLegacyAnnotation(member.getDeclaredAnnotations())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean hasLegacyAnnotation(Annotation[] annotations) {
+		for (Annotation annotation : annotations) {
+			if (annotation.annotationType().getName().startsWith(LEGACY_PACKAGE)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * lists the class files below the given package in directories and jars of the class loader
+	 */
+	private static Collection<String> findClassNames(String packagePrefix, ClassLoader loader) {
+		String path = packagePrefix.replace('.', '/');
+		TreeSet<String> classNames = new TreeSet<String>();
+		try {
+			Enumeration<URL> roots = loader.getResources(path);
+			while (roots.hasMoreElements()) {
+				URL root = roots.nextElement();
+				if ("file".equals(root.getProtocol())) {
+					addClassNames(new File(URLDecoder.decode(root.getPath(), "UTF-8")), packagePrefix, classNames);
+				} else {
+					URLConnection connection = root.openConnection();
+					if (connection instanceof JarURLConnection) {
+						connection.setUseCaches(false);
+						JarFile jar = ((JarURLConnection) connection).getJarFile();
+						try {
+							addClassNames(jar, path + "/", classNames);
+						} finally {
+							jar.close();
+						}
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		return classNames;
+	}
+
+	private static void addClassNames(File directory, String packageName, Collection<String> classNames) {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			String name = file.getName();
+			if (file.isDirectory()) {
+				addClassNames(file, packageName + "." + name, classNames);
+			} else if (name.endsWith(".class") && !"package-info.class".equals(name)) {
+				classNames.add(packageName + "." + name.substring(0, name.length() - ".class".length()));
+			}
+		}
+	}
+
+	private static void addClassNames(JarFile jar, String pathPrefix, Collection<String> classNames) {
+		Enumeration<JarEntry> entries = jar.entries();
+		while (entries.hasMoreElements()) {
+			String name = entries.nextElement().getName();
+			if (name.startsWith(pathPrefix) && name.endsWith(".class") && !name.endsWith("/package-info.class")) {
+				classNames.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+			}
+		}
+	}
+
+	private static final class Result {
+		final String className;
+
+		final long nanos;
+
+		final Throwable failure;
+
+		Result(String className, long nanos, Throwable failure) {
+			this.className = className;
+			this.nanos = nanos;
+			this.failure = failure;
+		}
+	}
+
+	private final class WarmupTask implements Callable<Result> {
+
+		private final String className;
+
+		private final Class<?> type;
+
+		private final ClassLoader loader;
+
+		private final boolean annotatedOnly;
+
+		WarmupTask(String className, Class<?> type, ClassLoader loader, boolean annotatedOnly) {
+			this.className = className;
+			this.type = type;
+			this.loader = loader;
+			this.annotatedOnly = annotatedOnly;
+		}
+
+		/**
+		 * @return <code>null</code> if a scanned class does not need a warm up
+		 */
+		@Override
+		public Result call() {
+			long start = System.nanoTime();
+			try {
+				Class<?> resolved = (type != null) ? type : Class.forName(className, false, loader);
+				if (annotatedOnly && !isWarmupCandidate(resolved)) {
+					return null;
+				}
+				warmUp(resolved);
+				return new Result(className, System.nanoTime() - start, null);
+			} catch (Exception e) {
+				return new Result(className, System.nanoTime() - start, e);
+			} catch (LinkageError e) {
+				// missing dependencies or failing static initializers
+				return new Result(className, System.nanoTime() - start, e);
+			}
+		}
+	}
+}
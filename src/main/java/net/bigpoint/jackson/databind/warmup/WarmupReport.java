@@ -0,0 +1,65 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.warmup;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Result of a {@link LegacyWarmup} run. Classes are identified by name, so classes that could not be loaded are
+ * reported as well.
+ */
+public final class WarmupReport {
+
+	private final Map<String, Long> timings;
+
+	private final Map<String, Throwable> failures;
+
+	private final long totalNanos;
+
+	WarmupReport(Map<String, Long> timings, Map<String, Throwable> failures, long totalNanos) {
+		this.timings = Collections.unmodifiableMap(timings);
+		this.failures = Collections.unmodifiableMap(failures);
+		this.totalNanos = totalNanos;
+	}
+
+	/**
+	 * @return nanoseconds spent resolving the serializer and deserializer of every warmed up class, including failed
+	 *         classes
+	 */
+	public Map<String, Long> getTimings() {
+		return timings;
+	}
+
+	/**
+	 * @return the error of every class whose serializer or deserializer could not be resolved
+	 */
+	public Map<String, Throwable> getFailures() {
+		return failures;
+	}
+
+	/**
+	 * @return wall clock nanoseconds of the whole run
+	 */
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	/**
+	 * @return <code>true</code> if all classes have been warmed up
+	 */
+	public boolean isSuccessful() {
+		return failures.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("warmed up ").append(timings.size() - failures.size()).append(" of ")
+				.append(timings.size()).append(" classes in ").append(totalNanos / 1000000L).append(" ms");
+		for (Map.Entry<String, Throwable> failure : failures.entrySet()) {
+			sb.append("\n  ").append(failure.getKey()).append(": ").append(failure.getValue());
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,150 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.wrapper;
+
+import java.lang.annotation.Annotation;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memoizes the jackson 2 views of jackson 1 annotation instances (see
+ * {@link AnnotationWrappingProxy#of(Class, Annotation)}). The jvm hands out one annotation instance per annotated
+ * element, so keys are compared by identity. Keys are only held weakly, neither adapters nor proxies reference the
+ * annotation they were created from.
+ * 
+ * Lookups do not lock, two threads missing the same annotation at once may both create a view but only the first one
+ * is kept.
+ */
+public final class AnnotationViewCache<A extends Annotation> {
+
+	private final Class<A> viewType;
+
+	private final ReferenceQueue<Annotation> queue = new ReferenceQueue<Annotation>();
+
+	private final ConcurrentMap<Object, A> views = new ConcurrentHashMap<Object, A>();
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * @param viewType
+	 *            the jackson 2 annotation type legacy annotations are presented as
+	 */
+	public AnnotationViewCache(Class<A> viewType) {
+		this.viewType = viewType;
+	}
+
+	/**
+	 * @return the jackson 2 view of the given jackson 1 annotation, <code>null</code> if the annotation is
+	 *         <code>null</code>
+	 */
+	public A viewOf(Annotation legacyAnnotation) {
+		if (legacyAnnotation == null) {
+			return null;
+		}
+		expungeStaleEntries();
+		A view = views.get(new LookupKey(legacyAnnotation));
+		if (view != null) {
+			hits.incrementAndGet();
+			return view;
+		}
+		misses.incrementAndGet();
+		view = AnnotationWrappingProxy.of(viewType, legacyAnnotation);
+		A existing = views.putIfAbsent(new IdentityKey(legacyAnnotation, queue), view);
+		return existing != null ? existing : view;
+	}
+
+	/**
+	 * @return number of lookups answered from the cache
+	 */
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	/**
+	 * @return number of lookups that had to create a view
+	 */
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	/**
+	 * @return number of cached views
+	 */
+	public int size() {
+		expungeStaleEntries();
+		return views.size();
+	}
+
+	private void expungeStaleEntries() {
+		for (Reference<? extends Annotation> ref = queue.poll(); ref != null; ref = queue.poll()) {
+			views.remove(ref);
+		}
+	}
+
+	/**
+	 * map key that holds its annotation weakly. Equality is identity of the referenced annotation.
+	 */
+	private static final class IdentityKey extends WeakReference<Annotation> {
+		private final int hash;
+
+		IdentityKey(Annotation annotation, ReferenceQueue<Annotation> queue) {
+			super(annotation, queue);
+			hash = System.identityHashCode(annotation);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (o == this) {
+				return true;
+			}
+			if (o instanceof LookupKey) {
+				return ((LookupKey) o).annotation == get();
+			}
+			// cleared keys are only equal to themselves so they can still be expunged
+			if (o instanceof IdentityKey) {
+				Annotation annotation = get();
+				return annotation != null && annotation == ((IdentityKey) o).get();
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * strong key used to look up {@link IdentityKey} entries without registering a weak reference.
+	 */
+	private static final class LookupKey {
+		private final Annotation annotation;
+
+		LookupKey(Annotation annotation) {
+			this.annotation = annotation;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(annotation);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (o == this) {
+				return true;
+			}
+			if (o instanceof IdentityKey) {
+				return ((IdentityKey) o).get() == annotation;
+			}
+			return false;
+		}
+	}
+}
@@ -4,30 +4,270 @@
 package net.bigpoint.jackson.databind.wrapper;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
+ * Presents a jackson 1 annotation as a jackson 2 annotation through a dynamic proxy.
+ * 
+ * The mapping between both annotation types is resolved once per pair and kept in a {@link DispatchTable}. Attribute
+ * values are read from the jackson 1 annotation when the proxy is created, afterwards every call is a table lookup.
+ * Enum values are translated by name and nested annotations are proxied as well, attributes missing in jackson 1 report
+ * their jackson 2 default.
+ * 
  * @author abaetz
  * 
  */
 public class AnnotationWrappingProxy<L extends Annotation> implements InvocationHandler {
 
-	@SuppressWarnings("unchecked")
+	private static final ConcurrentMap<TypePair, DispatchTable> DISPATCH_TABLES =
+			new ConcurrentHashMap<TypePair, DispatchTable>();
+
+	/**
+	 * Presents the given jackson 1 annotation as the given jackson 2 annotation type. Known annotation pairs are handled
+	 * by dedicated adapters, all others by a dynamic proxy.
+	 */
 	public static <A extends Annotation, B extends Annotation> A of(Class<A> annotation, B instance) {
+		if (annotation == com.fasterxml.jackson.annotation.JsonAutoDetect.class
+				&& instance instanceof org.codehaus.jackson.annotate.JsonAutoDetect) {
+			return annotation.cast(new JsonAutoDetectAdapter((org.codehaus.jackson.annotate.JsonAutoDetect) instance));
+		}
+		return proxy(annotation, instance);
+	}
+
+	/**
+	 * creates a dynamic proxy for the given annotation pair.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <A extends Annotation, B extends Annotation> A proxy(Class<A> annotation, B instance) {
 		return (A) Proxy.newProxyInstance(annotation.getClassLoader(), new Class[] { annotation },
-				new AnnotationWrappingProxy<B>(instance));
+				new AnnotationWrappingProxy<B>(dispatchTable(annotation, instance.annotationType()), instance));
+	}
+
+	private static DispatchTable dispatchTable(Class<? extends Annotation> proxyType,
+			Class<? extends Annotation> legacyType) {
+		TypePair key = new TypePair(proxyType, legacyType);
+		DispatchTable table = DISPATCH_TABLES.get(key);
+		if (table == null) {
+			table = new DispatchTable(proxyType, legacyType);
+			DispatchTable existing = DISPATCH_TABLES.putIfAbsent(key, table);
+			if (existing != null) {
+				table = existing;
+			}
+		}
+		return table;
 	}
 
-	private L annotation;
+	private final DispatchTable table;
+
+	/**
+	 * attribute values in the order of {@link DispatchTable#members}
+	 */
+	private final Object[] values;
 
-	private AnnotationWrappingProxy(L legacyAnnotation) {
-		annotation = legacyAnnotation;
+	private final int hashCode;
+
+	private AnnotationWrappingProxy(DispatchTable table, L legacyAnnotation) {
+		this.table = table;
+		values = table.readValues(legacyAnnotation);
+		hashCode = table.hashCode(values);
 	}
 
 	@Override
 	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-		return annotation.annotationType().getMethod(method.getName()).invoke(annotation);
+		Integer index = table.indices.get(method);
+		if (index != null) {
+			return copyIfArray(values[index]);
+		}
+		String name = method.getName();
+		int argCount = (args == null) ? 0 : args.length;
+		if (argCount == 0) {
+			if ("annotationType".equals(name)) {
+				return table.proxyType;
+			}
+			if ("hashCode".equals(name)) {
+				return hashCode;
+			}
+			if ("toString".equals(name)) {
+				return table.toString(values);
+			}
+		} else if (argCount == 1 && "equals".equals(name)) {
+			return equalsImpl(proxy, args[0]);
+		}
+		throw new UnsupportedOperationException("Unsupported annotation method " + method);
+	}
+
+	/**
+	 * as defined by {@link Annotation#equals(Object)}
+	 */
+	private boolean equalsImpl(Object proxy, Object other) throws Exception {
+		if (other == proxy) {
+			return true;
+		}
+		if (!table.proxyType.isInstance(other)) {
+			return false;
+		}
+		if (Proxy.isProxyClass(other.getClass())) {
+			InvocationHandler handler = Proxy.getInvocationHandler(other);
+			if (handler instanceof AnnotationWrappingProxy) {
+				return Arrays.deepEquals(values, ((AnnotationWrappingProxy<?>) handler).values);
+			}
+		}
+		Method[] members = table.members;
+		for (int i = 0; i < members.length; ++i) {
+			if (!Arrays.deepEquals(new Object[] { values[i] }, new Object[] { members[i].invoke(other) })) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static Object copyIfArray(Object value) {
+		if (value == null || !value.getClass().isArray()) {
+			return value;
+		}
+		int length = Array.getLength(value);
+		Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+		System.arraycopy(value, 0, copy, 0, length);
+		return copy;
+	}
+
+	/**
+	 * The mapping between the members of a jackson 2 annotation type and a jackson 1 annotation type.
+	 */
+	private static final class DispatchTable {
+
+		final Class<? extends Annotation> proxyType;
+
+		/**
+		 * members of the jackson 2 annotation type
+		 */
+		final Method[] members;
+
+		/**
+		 * matching members of the jackson 1 annotation type, <code>null</code> if missing
+		 */
+		final Method[] legacyMembers;
+
+		final Map<Method, Integer> indices;
+
+		DispatchTable(Class<? extends Annotation> proxyType, Class<? extends Annotation> legacyType) {
+			this.proxyType = proxyType;
+			members = proxyType.getDeclaredMethods();
+			legacyMembers = new Method[members.length];
+			indices = new HashMap<Method, Integer>(members.length * 2);
+			for (int i = 0; i < members.length; ++i) {
+				Method member = members[i];
+				member.setAccessible(true);
+				indices.put(member, i);
+				try {
+					Method legacyMember = legacyType.getMethod(member.getName());
+					legacyMember.setAccessible(true);
+					legacyMembers[i] = legacyMember;
+				} catch (NoSuchMethodException e) {
+					// reported with the jackson 2 default value
+				}
+			}
+		}
+
+		Object[] readValues(Annotation legacyAnnotation) {
+			Object[] values = new Object[members.length];
+			for (int i = 0; i < members.length; ++i) {
+				if (legacyMembers[i] == null) {
+					values[i] = members[i].getDefaultValue();
+				} else {
+					try {
+						values[i] = translate(legacyMembers[i].invoke(legacyAnnotation), members[i].getReturnType());
+					} catch (Exception e) {
+						throw new IllegalStateException("could not read " + legacyMembers[i], e);
+					}
+				}
+			}
+			return values;
+		}
+
+		/**
+		 * as defined by {@link Annotation#hashCode()}
+		 */
+		int hashCode(Object[] values) {
+			int result = 0;
+			for (int i = 0; i < members.length; ++i) {
+				// deepHashCode of a single element array is 31 + the hash of that element
+				int valueHash = Arrays.deepHashCode(new Object[] { values[i] }) - 31;
+				result += (127 * members[i].getName().hashCode()) ^ valueHash;
+			}
+			return result;
+		}
+
+		String toString(Object[] values) {
+			StringBuilder sb = new StringBuilder("@").append(proxyType.getName()).append('(');
+			for (int i = 0; i < members.length; ++i) {
+				if (i > 0) {
+					sb.append(", ");
+				}
+				String value = Arrays.deepToString(new Object[] { values[i] });
+				sb.append(members[i].getName()).append('=').append(value, 1, value.length() - 1);
+			}
+			return sb.append(')').toString();
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private static Object translate(Object value, Class<?> targetType) {
+			if (value == null || targetType.isPrimitive() || targetType.isInstance(value)) {
+				return value;
+			}
+			if (targetType.isEnum() && value instanceof Enum) {
+				return Enum.valueOf((Class<Enum>) targetType, ((Enum<?>) value).name());
+			}
+			if (targetType.isAnnotation() && value instanceof Annotation) {
+				// nested annotations, for example the types of @JsonSubTypes
+				return proxy((Class<Annotation>) targetType, (Annotation) value);
+			}
+			if (targetType.isArray() && value.getClass().isArray()) {
+				Class<?> componentType = targetType.getComponentType();
+				int length = Array.getLength(value);
+				Object result = Array.newInstance(componentType, length);
+				for (int i = 0; i < length; ++i) {
+					Array.set(result, i, translate(Array.get(value, i), componentType));
+				}
+				return result;
+			}
+			throw new IllegalArgumentException("Can not translate " + value + " to " + targetType.getName());
+		}
+	}
+
+	private static final class TypePair {
+		private final Class<?> proxyType;
+
+		private final Class<?> legacyType;
+
+		TypePair(Class<?> proxyType, Class<?> legacyType) {
+			this.proxyType = proxyType;
+			this.legacyType = legacyType;
+		}
+
+		@Override
+		public int hashCode() {
+			return proxyType.hashCode() * 31 + legacyType.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (o == this) {
+				return true;
+			}
+			if (!(o instanceof TypePair)) {
+				return false;
+			}
+			TypePair other = (TypePair) o;
+			return proxyType == other.proxyType && legacyType == other.legacyType;
+		}
 	}
 }
@@ -13,6 +13,7 @@ import org.codehaus.jackson.JsonToken;
 import org.codehaus.jackson.map.BeanProperty;
 import org.codehaus.jackson.map.DeserializationConfig;
 import org.codehaus.jackson.map.DeserializationContext;
+import org.codehaus.jackson.map.DeserializerProvider;
 import org.codehaus.jackson.map.JsonDeserializer;
 import org.codehaus.jackson.map.JsonMappingException;
 import org.codehaus.jackson.map.util.ArrayBuilders;
@@ -31,16 +32,51 @@ public class DeserializationContext2to1Wrapper extends DeserializationContext {
 
 	private com.fasterxml.jackson.databind.DeserializationContext wrappedContext;
 
-	private ObjectBuffer _objectBuffer;
+	private final RecycledBuffers buffers;
 
-	private ArrayBuilders _arrayBuilders;
+	/**
+	 * config handed out by {@link #getConfig()} during the current call, created on first access and dropped by
+	 * {@link #reset(com.fasterxml.jackson.databind.DeserializationContext)}
+	 */
+	private DeserializationConfig callConfig;
+
+	/**
+	 * created on first access, follows the context this wrapper wraps
+	 */
+	private DeserializerProvider2To1Wrapper deserializerProvider;
 
 	/**
 	 * @param config
 	 */
 	protected DeserializationContext2to1Wrapper(com.fasterxml.jackson.databind.DeserializationContext wrappedContext) {
+		this(wrappedContext, new RecycledBuffers());
+	}
+
+	/**
+	 * jackson 1 requires a config for every context. Every wrapper gets its own empty one: the config has mutators that
+	 * can not be overridden, so it can not be shared. Wrappers are reused per thread by {@link DeserializationScope}, so
+	 * this is not an allocation per call. Deserializers asking for the config get a fresh one per call instead, see
+	 * {@link #getConfig()}.
+	 * 
+	 * @param buffers
+	 *            buffers shared with other wrappers of the same thread
+	 */
+	DeserializationContext2to1Wrapper(com.fasterxml.jackson.databind.DeserializationContext wrappedContext,
+			RecycledBuffers buffers) {
 		super(new DeserializationConfig(null, null, null, null, null, null, null));
 		this.wrappedContext = wrappedContext;
+		this.buffers = buffers;
+	}
+
+	/**
+	 * makes this wrapper wrap another context, used to reuse wrapper instances.
+	 */
+	void reset(com.fasterxml.jackson.databind.DeserializationContext wrappedContext) {
+		this.wrappedContext = wrappedContext;
+		callConfig = null;
+		if (deserializerProvider != null) {
+			deserializerProvider.reset();
+		}
 	}
 
 	/**
@@ -57,6 +93,29 @@ public class DeserializationContext2to1Wrapper extends DeserializationContext {
 		return cls.getName();
 	}
 
+	/**
+	 * returns an empty config that lives until the wrapper is reset. Changes a deserializer makes to it never leak into
+	 * later calls that reuse this wrapper.
+	 */
+	@Override
+	public DeserializationConfig getConfig() {
+		if (callConfig == null) {
+			callConfig = new DeserializationConfig(null, null, null, null, null, null, null);
+		}
+		return callConfig;
+	}
+
+	/**
+	 * returns a provider that looks deserializers up in the wrapped context
+	 */
+	@Override
+	public DeserializerProvider getDeserializerProvider() {
+		if (deserializerProvider == null) {
+			deserializerProvider = new DeserializerProvider2To1Wrapper(this);
+		}
+		return deserializerProvider;
+	}
+
 	@Override
 	public JsonParser getParser() {
 		return new JsonParser2To1Wrapper(wrappedContext.getParser());
@@ -70,31 +129,17 @@ public class DeserializationContext2to1Wrapper extends DeserializationContext {
 
 	@Override
 	public final ObjectBuffer leaseObjectBuffer() {
-		ObjectBuffer buf = _objectBuffer;
-		if (buf == null) {
-			buf = new ObjectBuffer();
-		} else {
-			_objectBuffer = null;
-		}
-		return buf;
+		return buffers.leaseObjectBuffer();
 	}
 
 	@Override
 	public final void returnObjectBuffer(ObjectBuffer buf) {
-		/* Already have a reusable buffer? Let's retain bigger one
-		 * (or if equal, favor newer one, shorter life-cycle)
-		 */
-		if (_objectBuffer == null || buf.initialCapacity() >= _objectBuffer.initialCapacity()) {
-			_objectBuffer = buf;
-		}
+		buffers.returnObjectBuffer(buf);
 	}
 
 	@Override
 	public final ArrayBuilders getArrayBuilders() {
-		if (_arrayBuilders == null) {
-			_arrayBuilders = new ArrayBuilders();
-		}
-		return _arrayBuilders;
+		return buffers.getArrayBuilders();
 	}
 
 	@Override
@@ -0,0 +1,84 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.wrapper;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+/**
+ * Thread confined pair of 2-to-1 wrappers used by {@link JsonDeserializer1To2Wrapper} and
+ * {@link KeyDeserializer1To2Wrapper}. Works like {@link SerializationScope}: the wrappers are reset for every top level
+ * call, nested calls for the same parser and context share them and nested calls for other instances get a fresh
+ * scope. All scopes of a thread share the same {@link RecycledBuffers}, so buffers leased by jackson 1 deserializers
+ * are recycled across calls just like they were within a jackson 1 context.
+ * 
+ * The wrappers are only valid while the call is running, jackson 1 deserializers must not keep references to them.
+ */
+final class DeserializationScope {
+
+	private static final ThreadLocal<DeserializationScope> CURRENT = new ThreadLocal<DeserializationScope>() {
+		@Override
+		protected DeserializationScope initialValue() {
+			return new DeserializationScope(new RecycledBuffers());
+		}
+	};
+
+	final JsonParser2To1Wrapper parser = new JsonParser2To1Wrapper(null);
+
+	final DeserializationContext2to1Wrapper context;
+
+	private final RecycledBuffers buffers;
+
+	private int depth;
+
+	private DeserializationScope(RecycledBuffers buffers) {
+		this.buffers = buffers;
+		context = new DeserializationContext2to1Wrapper(null, buffers);
+	}
+
+	/**
+	 * returns a scope whose wrappers wrap the given instances. Every call has to be followed by {@link #exit()}.
+	 * 
+	 * @param jp
+	 *            the parser, <code>null</code> if the caller does not need a parser (key deserializers)
+	 */
+	static DeserializationScope enter(JsonParser jp, DeserializationContext ctxt) {
+		return enter(jp, ctxt, true, false);
+	}
+
+	/**
+	 * like {@link #enter(JsonParser, DeserializationContext)}
+	 * 
+	 * @param locationTracking
+	 *            see {@link JsonParser2To1Wrapper#setLocationTracking(boolean)}, only applied by top level calls
+	 * @param stacklessExceptions
+	 *            see {@link JsonParser2To1Wrapper#setStacklessExceptions(boolean)}, only applied by top level calls
+	 */
+	static DeserializationScope enter(JsonParser jp, DeserializationContext ctxt, boolean locationTracking,
+			boolean stacklessExceptions) {
+		DeserializationScope scope = CURRENT.get();
+		if (scope.depth > 0 && (scope.context.unwrap() != ctxt || (jp != null && scope.parser.unwrap() != jp))) {
+			// the cached wrappers are still in use by an enclosing call
+			scope = new DeserializationScope(scope.buffers);
+		}
+		if (scope.depth++ == 0) {
+			scope.parser.reset(jp);
+			scope.parser.setLocationTracking(locationTracking);
+			scope.parser.setStacklessExceptions(stacklessExceptions);
+			scope.context.reset(ctxt);
+		}
+		return scope;
+	}
+
+	/**
+	 * ends a call started by {@link #enter(JsonParser, DeserializationContext)}. The wrapped instances are released once
+	 * the outermost call ends.
+	 */
+	void exit() {
+		if (--depth == 0) {
+			parser.reset(null);
+			context.reset(null);
+		}
+	}
+}
@@ -0,0 +1,161 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.wrapper;
+
+import static net.bigpoint.jackson.databind.wrapper.JacksonTransformers.transformBeanProperty;
+import static net.bigpoint.jackson.databind.wrapper.JacksonTransformers.transformJavaType;
+import static net.bigpoint.jackson.databind.wrapper.JacksonTransformers.wrapMappingException;
+
+import org.codehaus.jackson.io.SerializedString;
+import org.codehaus.jackson.map.AbstractTypeResolver;
+import org.codehaus.jackson.map.BeanProperty;
+import org.codehaus.jackson.map.DeserializationConfig;
+import org.codehaus.jackson.map.DeserializerFactory;
+import org.codehaus.jackson.map.DeserializerProvider;
+import org.codehaus.jackson.map.Deserializers;
+import org.codehaus.jackson.map.JsonDeserializer;
+import org.codehaus.jackson.map.JsonMappingException;
+import org.codehaus.jackson.map.KeyDeserializer;
+import org.codehaus.jackson.map.KeyDeserializers;
+import org.codehaus.jackson.map.deser.BeanDeserializerModifier;
+import org.codehaus.jackson.map.deser.ValueInstantiators;
+import org.codehaus.jackson.type.JavaType;
+
+/**
+ * Presents the deserializer lookups of the jackson 2 context wrapped by a {@link DeserializationContext2to1Wrapper} as
+ * jackson 1 provider. Deserializers are handed out through
+ * {@link JsonDeserializer2To1Wrapper#wrap(com.fasterxml.jackson.databind.JsonDeserializer)}, so jackson 1
+ * deserializers registered by the introspector come back unwrapped.
+ * 
+ * Lookups use the jackson 2 context the owning wrapper currently wraps, the given jackson 1 configs are ignored. The
+ * provider can not be reconfigured.
+ */
+public class DeserializerProvider2To1Wrapper extends DeserializerProvider {
+
+	/**
+	 * maximum number of translated jackson 1 types kept per wrapped context
+	 */
+	private static final int MAX_CACHED_TYPES = 64;
+
+	private final DeserializationContext2to1Wrapper context;
+
+	/**
+	 * jackson 1 types translated for the wrapped context, emptied whenever the owning wrapper is reset
+	 */
+	private final JavaTypeCache<JavaType> types = new JavaTypeCache<JavaType>(MAX_CACHED_TYPES);
+
+	DeserializerProvider2To1Wrapper(DeserializationContext2to1Wrapper context) {
+		this.context = context;
+	}
+
+	void reset() {
+		types.clear();
+	}
+
+	private com.fasterxml.jackson.databind.JavaType translate(JavaType type) {
+		return transformJavaType(type, context.unwrap().getConfig().getTypeFactory(), types);
+	}
+
+	@Override
+	public JsonDeserializer<Object> findValueDeserializer(DeserializationConfig config, JavaType propertyType,
+			BeanProperty property) throws JsonMappingException {
+		try {
+			return JsonDeserializer2To1Wrapper.wrap(context.unwrap().findContextualValueDeserializer(
+					translate(propertyType), transformBeanProperty(property)));
+		} catch (com.fasterxml.jackson.databind.JsonMappingException e) {
+			throw wrapMappingException(e);
+		}
+	}
+
+	/**
+	 * the jackson 2 context adds the type deserializer to root value deserializers, the property is not needed
+	 */
+	@Override
+	public JsonDeserializer<Object> findTypedValueDeserializer(DeserializationConfig config, JavaType type,
+			BeanProperty property) throws JsonMappingException {
+		try {
+			return JsonDeserializer2To1Wrapper.wrap(context.unwrap().findRootValueDeserializer(translate(type)));
+		} catch (com.fasterxml.jackson.databind.JsonMappingException e) {
+			throw wrapMappingException(e);
+		}
+	}
+
+	/**
+	 * @throws UnsupportedOperationException
+	 *             if the key deserializer is no wrapped jackson 1 key deserializer
+	 */
+	@Override
+	public KeyDeserializer findKeyDeserializer(DeserializationConfig config, JavaType type, BeanProperty property)
+			throws JsonMappingException {
+		com.fasterxml.jackson.databind.KeyDeserializer deserializer;
+		try {
+			deserializer = context.unwrap().findKeyDeserializer(translate(type), transformBeanProperty(property));
+		} catch (com.fasterxml.jackson.databind.JsonMappingException e) {
+			throw wrapMappingException(e);
+		}
+		if (deserializer == null) {
+			return null;
+		}
+		if (deserializer instanceof KeyDeserializer1To2Wrapper) {
+			return ((KeyDeserializer1To2Wrapper) deserializer).unwrap();
+		}
+		throw new UnsupportedOperationException("Jackson 2 key deserializers can not be used by jackson 1.");
+	}
+
+	@Override
+	public boolean hasValueDeserializerFor(DeserializationConfig config, JavaType type) {
+		return context.unwrap().hasValueDeserializerFor(translate(type));
+	}
+
+	@Override
+	public JavaType mapAbstractType(DeserializationConfig config, JavaType type) throws JsonMappingException {
+		throw new UnsupportedOperationException("Abstract type mapping is not supported.");
+	}
+
+	@Override
+	public SerializedString findExpectedRootName(DeserializationConfig config, JavaType type)
+			throws JsonMappingException {
+		throw new UnsupportedOperationException("Root names are not supported.");
+	}
+
+	@Override
+	public int cachedDeserializersCount() {
+		throw new UnsupportedOperationException("The deserializer cache belongs to the jackson 2 context.");
+	}
+
+	@Override
+	public void flushCachedDeserializers() {
+		throw new UnsupportedOperationException("The deserializer cache belongs to the jackson 2 context.");
+	}
+
+	@Override
+	public DeserializerProvider withFactory(DeserializerFactory factory) {
+		throw new UnsupportedOperationException("The provider of a wrapped context can not be reconfigured.");
+	}
+
+	@Override
+	public DeserializerProvider withAdditionalDeserializers(Deserializers d) {
+		throw new UnsupportedOperationException("The provider of a wrapped context can not be reconfigured.");
+	}
+
+	@Override
+	public DeserializerProvider withAdditionalKeyDeserializers(KeyDeserializers d) {
+		throw new UnsupportedOperationException("The provider of a wrapped context can not be reconfigured.");
+	}
+
+	@Override
+	public DeserializerProvider withDeserializerModifier(BeanDeserializerModifier modifier) {
+		throw new UnsupportedOperationException("The provider of a wrapped context can not be reconfigured.");
+	}
+
+	@Override
+	public DeserializerProvider withAbstractTypeResolver(AbstractTypeResolver resolver) {
+		throw new UnsupportedOperationException("The provider of a wrapped context can not be reconfigured.");
+	}
+
+	@Override
+	public DeserializerProvider withValueInstantiators(ValueInstantiators instantiators) {
+		throw new UnsupportedOperationException("The provider of a wrapped context can not be reconfigured.");
+	}
+}
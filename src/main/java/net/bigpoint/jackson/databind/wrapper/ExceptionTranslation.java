@@ -0,0 +1,125 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.wrapper;
+
+import static net.bigpoint.jackson.databind.wrapper.JacksonTransformers.transformJsonLocation;
+
+import org.codehaus.jackson.JsonGenerationException;
+import org.codehaus.jackson.JsonLocation;
+import org.codehaus.jackson.JsonParseException;
+import org.codehaus.jackson.map.JsonMappingException;
+
+/**
+ * Translates jackson 2 exceptions thrown below the 2-to-1 wrappers into jackson 1 exceptions. Every wrapper carries its
+ * own translation, so stackless translation only applies to the wrappers of the introspector that enabled it.
+ * 
+ * In stackless mode translated exceptions do not fill in a stack trace, keep the message of the jackson 2 exception and
+ * translate its location only when it is asked for. The jackson 2 exception is always kept as cause.
+ */
+final class ExceptionTranslation {
+
+	static final ExceptionTranslation DEFAULT = new ExceptionTranslation(false);
+
+	static final ExceptionTranslation STACKLESS = new ExceptionTranslation(true);
+
+	private final boolean stackless;
+
+	private ExceptionTranslation(boolean stackless) {
+		this.stackless = stackless;
+	}
+
+	static ExceptionTranslation of(boolean stackless) {
+		return stackless ? STACKLESS : DEFAULT;
+	}
+
+	boolean isStackless() {
+		return stackless;
+	}
+
+	JsonParseException wrapJsonParseException(com.fasterxml.jackson.core.JsonParseException e) {
+		return wrapProcessingException(e);
+	}
+
+	JsonGenerationException wrapJsonGenerationException(com.fasterxml.jackson.core.JsonGenerationException e) {
+		if (stackless) {
+			return new StacklessJsonGenerationException(e);
+		}
+		return new JsonGenerationException(e);
+	}
+
+	JsonParseException wrapProcessingException(com.fasterxml.jackson.core.JsonProcessingException e) {
+		if (stackless) {
+			return new StacklessJsonParseException(e);
+		}
+		return new JsonParseException("wrapped exception", transformJsonLocation(e.getLocation()), e);
+	}
+
+	JsonMappingException wrapMappingException(com.fasterxml.jackson.databind.JsonMappingException e) {
+		if (stackless) {
+			return new StacklessJsonMappingException(e);
+		}
+		return new JsonMappingException("wrapped exception", transformJsonLocation(e.getLocation()), e);
+	}
+
+	/*
+	 * Exceptions used in stackless mode. The location field of the jackson 1 exception is filled on first access.
+	 */
+
+	private static final class StacklessJsonParseException extends JsonParseException {
+		private static final long serialVersionUID = 1L;
+
+		StacklessJsonParseException(com.fasterxml.jackson.core.JsonProcessingException cause) {
+			super(cause.getOriginalMessage(), null, cause);
+		}
+
+		@Override
+		public JsonLocation getLocation() {
+			if (mLocation == null) {
+				mLocation = transformJsonLocation(((com.fasterxml.jackson.core.JsonProcessingException) getCause())
+						.getLocation());
+			}
+			return mLocation;
+		}
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+	}
+
+	private static final class StacklessJsonMappingException extends JsonMappingException {
+		private static final long serialVersionUID = 1L;
+
+		StacklessJsonMappingException(com.fasterxml.jackson.databind.JsonMappingException cause) {
+			super(cause.getOriginalMessage(), null, cause);
+		}
+
+		@Override
+		public JsonLocation getLocation() {
+			if (mLocation == null) {
+				mLocation = transformJsonLocation(((com.fasterxml.jackson.core.JsonProcessingException) getCause())
+						.getLocation());
+			}
+			return mLocation;
+		}
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+	}
+
+	private static final class StacklessJsonGenerationException extends JsonGenerationException {
+		private static final long serialVersionUID = 1L;
+
+		StacklessJsonGenerationException(com.fasterxml.jackson.core.JsonGenerationException cause) {
+			super(cause.getOriginalMessage(), cause);
+		}
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return this;
+		}
+	}
+}
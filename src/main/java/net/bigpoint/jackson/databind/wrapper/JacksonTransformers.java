@@ -15,10 +15,15 @@ import org.codehaus.jackson.JsonProcessingException;
 import org.codehaus.jackson.map.BeanProperty;
 import org.codehaus.jackson.map.DeserializationContext;
 import org.codehaus.jackson.map.JsonMappingException;
+import org.codehaus.jackson.map.type.CollectionType;
+import org.codehaus.jackson.map.type.MapType;
 import org.codehaus.jackson.type.JavaType;
 import org.codehaus.jackson.type.TypeReference;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * @author Alexander
@@ -26,6 +31,61 @@ import java.lang.reflect.Type;
  */
 public abstract class JacksonTransformers {
 
+	/*
+	 * Enum translation tables, indexed by the ordinal of the source value. Tokens and number types have to match exactly,
+	 * the class fails to initialize if the jackson 1 and jackson 2 versions on the classpath differ.
+	 */
+
+	private static final org.codehaus.jackson.JsonToken[] JSON_TOKENS_2_TO_1 = enumTable(JsonToken.class,
+			org.codehaus.jackson.JsonToken.class, true);
+
+	private static final JsonToken[] JSON_TOKENS_1_TO_2 = enumTable(org.codehaus.jackson.JsonToken.class,
+			JsonToken.class, true);
+
+	private static final JsonParser.NumberType[] NUMBER_TYPES_2_TO_1 = enumTable(
+			com.fasterxml.jackson.core.JsonParser.NumberType.class, JsonParser.NumberType.class, true);
+
+	/**
+	 * contains <code>null</code> for features jackson 2 does not support
+	 */
+	private static final com.fasterxml.jackson.core.JsonParser.Feature[] PARSER_FEATURES_1_TO_2 = enumTable(
+			JsonParser.Feature.class, com.fasterxml.jackson.core.JsonParser.Feature.class, false);
+
+	/**
+	 * contains <code>null</code> for features jackson 2 does not support
+	 */
+	private static final com.fasterxml.jackson.core.JsonGenerator.Feature[] GENERATOR_FEATURES_1_TO_2 = enumTable(
+			JsonGenerator.Feature.class, com.fasterxml.jackson.core.JsonGenerator.Feature.class, false);
+
+	/**
+	 * builds a table that maps each value of the source enum (by ordinal) to the target value with the same name.
+	 * 
+	 * @param strict
+	 *            if <code>true</code> both enums have to contain exactly the same names
+	 * @throws IllegalStateException
+	 *             if strict and the enums differ
+	 */
+	@SuppressWarnings("unchecked")
+	static <S extends Enum<S>, T extends Enum<T>> T[] enumTable(Class<S> source, Class<T> target, boolean strict) {
+		S[] sourceValues = source.getEnumConstants();
+		T[] table = (T[]) Array.newInstance(target, sourceValues.length);
+		for (S value : sourceValues) {
+			try {
+				table[value.ordinal()] = Enum.valueOf(target, value.name());
+			} catch (IllegalArgumentException e) {
+				if (strict) {
+					throw new IllegalStateException(target.getName() + " has no value " + value.name()
+							+ ", jackson 1 and jackson 2 versions are incompatible");
+				}
+			}
+		}
+		if (strict && sourceValues.length != target.getEnumConstants().length) {
+			throw new IllegalStateException(source.getName() + " and " + target.getName()
+					+ " differ, jackson 1 and jackson 2 versions are incompatible");
+		}
+		return table;
+	}
+
 	/**
 	 * transforms bean property instances from jackson 1 to jackson 2
 	 * 
@@ -55,19 +115,66 @@ public abstract class JacksonTransformers {
 		return transformJavaType(type, provider.getConfig().getTypeFactory());
 	}
 
+	/**
+	 * translates the given type including all nested type parameters. The result is built on every call, wrappers that
+	 * translate the same types repeatedly keep the results in a {@link JavaTypeCache}.
+	 */
 	protected static com.fasterxml.jackson.databind.JavaType transformJavaType(JavaType type,
 			com.fasterxml.jackson.databind.type.TypeFactory fac) {
+		if (type == null) {
+			return null;
+		}
+		return translateJavaType(type, fac);
+	}
+
+	/**
+	 * like {@link #transformJavaType(JavaType, com.fasterxml.jackson.databind.type.TypeFactory)}, translations are taken
+	 * from and stored in the given cache.
+	 */
+	static com.fasterxml.jackson.databind.JavaType transformJavaType(JavaType type,
+			com.fasterxml.jackson.databind.type.TypeFactory fac, JavaTypeCache<JavaType> cache) {
+		if (type == null) {
+			return null;
+		}
+		com.fasterxml.jackson.databind.JavaType result = cache.get(type, fac);
+		if (result == null) {
+			result = translateJavaType(type, fac);
+			cache.put(type, fac, result);
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static com.fasterxml.jackson.databind.JavaType translateJavaType(JavaType type,
+			com.fasterxml.jackson.databind.type.TypeFactory fac) {
+		Class<?> rawClass = type.getRawClass();
 		if (type.isArrayType()) {
-			return fac.constructArrayType(type.getContentType().getRawClass());
+			return fac.constructArrayType(transformJavaType(type.getContentType(), fac));
+		}
+		if (type.isMapLikeType()) {
+			com.fasterxml.jackson.databind.JavaType keyType = transformJavaType(type.getKeyType(), fac);
+			com.fasterxml.jackson.databind.JavaType contentType = transformJavaType(type.getContentType(), fac);
+			if (type instanceof MapType) {
+				return fac.constructMapType((Class<? extends Map<?, ?>>) rawClass, keyType, contentType);
+			}
+			return fac.constructMapLikeType(rawClass, keyType, contentType);
 		}
 		if (type.isCollectionLikeType()) {
-			return fac.constructCollectionLikeType(type.getRawClass(), type.getContentType().getRawClass());
+			com.fasterxml.jackson.databind.JavaType contentType = transformJavaType(type.getContentType(), fac);
+			if (type instanceof CollectionType) {
+				return fac.constructCollectionType((Class<? extends Collection<?>>) rawClass, contentType);
+			}
+			return fac.constructCollectionLikeType(rawClass, contentType);
 		}
-		if (type.isMapLikeType()) {
-			return fac.constructMapLikeType(type.getRawClass(), type.getKeyType().getRawClass(), type.getContentType()
-					.getRawClass());
+		int parameterCount = type.containedTypeCount();
+		if (parameterCount > 0 && parameterCount == rawClass.getTypeParameters().length) {
+			com.fasterxml.jackson.databind.JavaType[] parameters = new com.fasterxml.jackson.databind.JavaType[parameterCount];
+			for (int i = 0; i < parameterCount; ++i) {
+				parameters[i] = transformJavaType(type.containedType(i), fac);
+			}
+			return fac.constructParametricType(rawClass, parameters);
 		}
-		return fac.uncheckedSimpleType(type.getRawClass());
+		return fac.uncheckedSimpleType(rawClass);
 	}
 
 	/**
@@ -107,26 +214,28 @@ public abstract class JacksonTransformers {
 	}
 
 	public static JsonParseException wrapJsonParseException(com.fasterxml.jackson.core.JsonParseException exception) {
-		return new JsonParseException("wrapped exception", new JsonLocation(exception.getLocation().getSourceRef(),
-				exception.getLocation().getCharOffset(), exception.getLocation().getByteOffset(), exception.getLocation()
-						.getLineNr(), exception.getLocation().getColumnNr()), exception);
+		return ExceptionTranslation.DEFAULT.wrapJsonParseException(exception);
 	}
 
 	public static JsonGenerationException wrapJsonGenerationException(
 			com.fasterxml.jackson.core.JsonGenerationException exception) {
-		return new JsonGenerationException(exception);
+		return ExceptionTranslation.DEFAULT.wrapJsonGenerationException(exception);
 	}
 
 	public static JsonProcessingException wrapProcessingException(com.fasterxml.jackson.core.JsonProcessingException e) {
-		return new JsonParseException("wrapped exception", new JsonLocation(e.getLocation().getSourceRef(), e.getLocation()
-				.getByteOffset(), e.getLocation().getCharOffset(), e.getLocation().getLineNr(), e.getLocation().getColumnNr()),
-				e);
+		return ExceptionTranslation.DEFAULT.wrapProcessingException(e);
 	}
 
 	public static JsonMappingException wrapMappingException(com.fasterxml.jackson.databind.JsonMappingException e) {
-		return new JsonMappingException("wrapped exception", new JsonLocation(e.getLocation().getSourceRef(), e
-				.getLocation().getByteOffset(), e.getLocation().getCharOffset(), e.getLocation().getLineNr(), e.getLocation()
-				.getColumnNr()), e);
+		return ExceptionTranslation.DEFAULT.wrapMappingException(e);
+	}
+
+	public static JsonLocation transformJsonLocation(com.fasterxml.jackson.core.JsonLocation location) {
+		if (location == null) {
+			return null;
+		}
+		return new JsonLocation(location.getSourceRef(), location.getByteOffset(), location.getCharOffset(),
+				location.getLineNr(), location.getColumnNr());
 	}
 
 	public static com.fasterxml.jackson.core.Base64Variant transformBase64Variant(Base64Variant b64variant) {
@@ -152,32 +261,107 @@ public abstract class JacksonTransformers {
 		if (token == null) {
 			return null;
 		}
-		return org.codehaus.jackson.JsonToken.valueOf(token.name());
+		return JSON_TOKENS_2_TO_1[token.ordinal()];
+	}
+
+	public static JsonToken transformJsonToken(org.codehaus.jackson.JsonToken token) {
+		if (token == null) {
+			return null;
+		}
+		return JSON_TOKENS_1_TO_2[token.ordinal()];
 	}
 
 	public static JsonParser.NumberType transformNumberType(com.fasterxml.jackson.core.JsonParser.NumberType numberType) {
 		if (numberType == null) {
 			return null;
 		}
-		return JsonParser.NumberType.valueOf(numberType.name());
+		return NUMBER_TYPES_2_TO_1[numberType.ordinal()];
 	}
 
-	public static com.fasterxml.jackson.core.type.TypeReference<?> transformTypeReference(final TypeReference<?> typeReference) {
+	/**
+	 * creates a jackson 2 reference to the type of the given jackson 1 reference. Wrappers only use it for codecs that
+	 * are no {@link com.fasterxml.jackson.databind.ObjectMapper}, mappers get the resolved type instead.
+	 */
+	public static com.fasterxml.jackson.core.type.TypeReference<?> transformTypeReference(TypeReference<?> typeReference) {
 		if (typeReference == null) {
 			return null;
 		}
-		return new com.fasterxml.jackson.core.type.TypeReference<Object>() {
-			@Override
-			public Type getType() {
-				return typeReference.getType();
-			}
-		};
+		return new TranslatedTypeReference(typeReference.getType());
+	}
+
+	/**
+	 * resolves the type referenced by the given jackson 1 reference with the given type factory. Generic types are
+	 * resolved again on every call.
+	 */
+	public static com.fasterxml.jackson.databind.JavaType transformTypeReference(TypeReference<?> typeReference,
+			com.fasterxml.jackson.databind.type.TypeFactory fac) {
+		if (typeReference == null) {
+			return null;
+		}
+		return fac.constructType(typeReference.getType());
 	}
 
+	/**
+	 * like {@link #transformTypeReference(TypeReference, com.fasterxml.jackson.databind.type.TypeFactory)}, resolved
+	 * types are taken from and stored in the given cache
+	 */
+	static com.fasterxml.jackson.databind.JavaType transformTypeReference(TypeReference<?> typeReference,
+			com.fasterxml.jackson.databind.type.TypeFactory fac, JavaTypeCache<Type> cache) {
+		if (typeReference == null) {
+			return null;
+		}
+		Type type = typeReference.getType();
+		com.fasterxml.jackson.databind.JavaType result = cache.get(type, fac);
+		if (result == null) {
+			result = fac.constructType(type);
+			cache.put(type, fac, result);
+		}
+		return result;
+	}
+
+	/**
+	 * jackson 2 reference to a type taken from a jackson 1 reference
+	 */
+	private static final class TranslatedTypeReference extends com.fasterxml.jackson.core.type.TypeReference<Object> {
+		private final Type type;
+
+		TranslatedTypeReference(Type type) {
+			this.type = type;
+		}
+
+		@Override
+		public Type getType() {
+			return type;
+		}
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if jackson 2 does not support the feature
+	 */
 	public static com.fasterxml.jackson.core.JsonParser.Feature transformFeature(JsonParser.Feature feature) {
 		if (feature == null) {
 			return null;
 		}
-		return com.fasterxml.jackson.core.JsonParser.Feature.valueOf(feature.name());
+		com.fasterxml.jackson.core.JsonParser.Feature result = PARSER_FEATURES_1_TO_2[feature.ordinal()];
+		if (result == null) {
+			throw new IllegalArgumentException("Parser feature " + feature + " is not supported by jackson 2");
+		}
+		return result;
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             if jackson 2 does not support the feature
+	 */
+	public static com.fasterxml.jackson.core.JsonGenerator.Feature transformFeature(JsonGenerator.Feature feature) {
+		if (feature == null) {
+			return null;
+		}
+		com.fasterxml.jackson.core.JsonGenerator.Feature result = GENERATOR_FEATURES_1_TO_2[feature.ordinal()];
+		if (result == null) {
+			throw new IllegalArgumentException("Generator feature " + feature + " is not supported by jackson 2");
+		}
+		return result;
 	}
 }
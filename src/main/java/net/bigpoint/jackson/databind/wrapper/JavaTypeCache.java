@@ -0,0 +1,76 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.wrapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+
+/**
+ * Bounded cache of jackson 2 types built by one {@link TypeFactory}. The type factory only caches simple types it
+ * resolves from classes, generic types and translated jackson 1 types are built again on every call. The least recently
+ * used type is dropped once the cache is full. Storing a type built by another type factory empties the cache first,
+ * so types of a replaced factory are never handed out.
+ * 
+ * Not thread safe. Every instance belongs to one wrapper and lives as long as it does, there is no static cache.
+ * 
+ * @param <K>
+ *            the key the types are built from
+ */
+final class JavaTypeCache<K> {
+
+	private final LinkedHashMap<K, JavaType> types;
+
+	private TypeFactory typeFactory;
+
+	/**
+	 * @param maxEntries
+	 *            maximum number of types kept by this cache
+	 */
+	JavaTypeCache(final int maxEntries) {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("maxEntries must be positive");
+		}
+		types = new LinkedHashMap<K, JavaType>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, JavaType> eldest) {
+				return size() > maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * @return the type stored for the given key, <code>null</code> if there is none or it was built by another type
+	 *         factory
+	 */
+	JavaType get(K key, TypeFactory fac) {
+		if (fac != typeFactory) {
+			return null;
+		}
+		return types.get(key);
+	}
+
+	void put(K key, TypeFactory fac, JavaType type) {
+		if (fac != typeFactory) {
+			types.clear();
+			typeFactory = fac;
+		}
+		types.put(key, type);
+	}
+
+	void clear() {
+		if (!types.isEmpty()) {
+			types.clear();
+		}
+		typeFactory = null;
+	}
+
+	int size() {
+		return types.size();
+	}
+}
@@ -0,0 +1,119 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.wrapper;
+
+import java.lang.annotation.Annotation;
+
+import org.codehaus.jackson.annotate.JsonMethod;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+
+/**
+ * Presents a jackson 1 {@link org.codehaus.jackson.annotate.JsonAutoDetect} annotation as its jackson 2 counterpart.
+ * All attributes are translated once on construction, so reading them is a plain field access.
+ * 
+ * Jackson 1 only applies the visibility of a member type if it is listed in <code>value()</code>, all other member
+ * types are not auto detected. This adapter reports those as {@link Visibility#NONE} as jackson 2 has no equivalent of
+ * <code>value()</code>.
+ */
+@SuppressWarnings("ClassExplicitlyAnnotation")
+public final class JsonAutoDetectAdapter implements JsonAutoDetect {
+
+	private final Visibility getterVisibility;
+
+	private final Visibility isGetterVisibility;
+
+	private final Visibility setterVisibility;
+
+	private final Visibility creatorVisibility;
+
+	private final Visibility fieldVisibility;
+
+	public JsonAutoDetectAdapter(org.codehaus.jackson.annotate.JsonAutoDetect legacyAnnotation) {
+		boolean getter = false, isGetter = false, setter = false, creator = false, field = false;
+		for (JsonMethod method : legacyAnnotation.value()) {
+			getter |= method.getterEnabled();
+			isGetter |= method.isGetterEnabled();
+			setter |= method.setterEnabled();
+			creator |= method.creatorEnabled();
+			field |= method.fieldEnabled();
+		}
+		getterVisibility = getter ? transform(legacyAnnotation.getterVisibility()) : Visibility.NONE;
+		isGetterVisibility = isGetter ? transform(legacyAnnotation.isGetterVisibility()) : Visibility.NONE;
+		setterVisibility = setter ? transform(legacyAnnotation.setterVisibility()) : Visibility.NONE;
+		creatorVisibility = creator ? transform(legacyAnnotation.creatorVisibility()) : Visibility.NONE;
+		fieldVisibility = field ? transform(legacyAnnotation.fieldVisibility()) : Visibility.NONE;
+	}
+
+	private static Visibility transform(org.codehaus.jackson.annotate.JsonAutoDetect.Visibility visibility) {
+		return Visibility.valueOf(visibility.name());
+	}
+
+	@Override
+	public Class<? extends Annotation> annotationType() {
+		return JsonAutoDetect.class;
+	}
+
+	@Override
+	public Visibility getterVisibility() {
+		return getterVisibility;
+	}
+
+	@Override
+	public Visibility isGetterVisibility() {
+		return isGetterVisibility;
+	}
+
+	@Override
+	public Visibility setterVisibility() {
+		return setterVisibility;
+	}
+
+	@Override
+	public Visibility creatorVisibility() {
+		return creatorVisibility;
+	}
+
+	@Override
+	public Visibility fieldVisibility() {
+		return fieldVisibility;
+	}
+
+	/**
+	 * as defined by {@link Annotation#equals(Object)}
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (o == this) {
+			return true;
+		}
+		if (!(o instanceof JsonAutoDetect)) {
+			return false;
+		}
+		JsonAutoDetect other = (JsonAutoDetect) o;
+		return getterVisibility == other.getterVisibility() && isGetterVisibility == other.isGetterVisibility()
+				&& setterVisibility == other.setterVisibility() && creatorVisibility == other.creatorVisibility()
+				&& fieldVisibility == other.fieldVisibility();
+	}
+
+	/**
+	 * as defined by {@link Annotation#hashCode()}
+	 */
+	@Override
+	public int hashCode() {
+		return ((127 * "getterVisibility".hashCode()) ^ getterVisibility.hashCode())
+				+ ((127 * "isGetterVisibility".hashCode()) ^ isGetterVisibility.hashCode())
+				+ ((127 * "setterVisibility".hashCode()) ^ setterVisibility.hashCode())
+				+ ((127 * "creatorVisibility".hashCode()) ^ creatorVisibility.hashCode())
+				+ ((127 * "fieldVisibility".hashCode()) ^ fieldVisibility.hashCode());
+	}
+
+	@Override
+	public String toString() {
+		return "@" + JsonAutoDetect.class.getName() + "(getterVisibility=" + getterVisibility + ", isGetterVisibility="
+				+ isGetterVisibility + ", setterVisibility=" + setterVisibility + ", creatorVisibility="
+				+ creatorVisibility + ", fieldVisibility=" + fieldVisibility + ")";
+	}
+}
@@ -5,6 +5,9 @@ package net.bigpoint.jackson.databind.wrapper;
 
 import java.io.IOException;
 
+import net.bigpoint.jackson.databind.metrics.MetricsListener;
+import net.bigpoint.jackson.databind.metrics.NopMetricsListener;
+
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationContext;
@@ -19,12 +22,91 @@ public class JsonDeserializer1To2Wrapper<T> extends JsonDeserializer<T> {
 
 	private org.codehaus.jackson.map.JsonDeserializer<T> wrappedSerializer;
 
+	private final MetricsListener metrics;
+
+	private final boolean locationTracking;
+
+	private final boolean stacklessExceptions;
+
 	/**
 	 * @param wrappedSerializer
 	 */
 	public JsonDeserializer1To2Wrapper(org.codehaus.jackson.map.JsonDeserializer<T> wrappedSerializer) {
+		this(wrappedSerializer, NopMetricsListener.instance);
+	}
+
+	/**
+	 * @param metrics
+	 *            receives the time spent in the wrapped deserializer
+	 */
+	public JsonDeserializer1To2Wrapper(org.codehaus.jackson.map.JsonDeserializer<T> wrappedSerializer,
+			MetricsListener metrics) {
+		this(wrappedSerializer, metrics, true);
+	}
+
+	/**
+	 * @param locationTracking
+	 *            <code>false</code> to hide parser locations from the wrapped deserializer, see
+	 *            {@link JsonParser2To1Wrapper#setLocationTracking(boolean)}
+	 */
+	public JsonDeserializer1To2Wrapper(org.codehaus.jackson.map.JsonDeserializer<T> wrappedSerializer,
+			MetricsListener metrics, boolean locationTracking) {
+		this(wrappedSerializer, metrics, locationTracking, false);
+	}
+
+	/**
+	 * @param stacklessExceptions
+	 *            <code>true</code> to translate jackson 2 exceptions without stack traces, see
+	 *            {@link JsonParser2To1Wrapper#setStacklessExceptions(boolean)}
+	 */
+	public JsonDeserializer1To2Wrapper(org.codehaus.jackson.map.JsonDeserializer<T> wrappedSerializer,
+			MetricsListener metrics, boolean locationTracking, boolean stacklessExceptions) {
 		super();
 		this.wrappedSerializer = wrappedSerializer;
+		this.metrics = metrics;
+		this.locationTracking = locationTracking;
+		this.stacklessExceptions = stacklessExceptions;
+	}
+
+	/**
+	 * wraps the given jackson 1 deserializer. Wrappers of jackson 2 deserializers are unwrapped instead of wrapped again.
+	 * 
+	 * @return <code>null</code> if the given deserializer is <code>null</code>
+	 */
+	public static <T> JsonDeserializer<T> wrap(org.codehaus.jackson.map.JsonDeserializer<T> deserializer) {
+		return wrap(deserializer, NopMetricsListener.instance);
+	}
+
+	/**
+	 * like {@link #wrap(org.codehaus.jackson.map.JsonDeserializer)}, new wrappers report to the given listener.
+	 */
+	public static <T> JsonDeserializer<T> wrap(org.codehaus.jackson.map.JsonDeserializer<T> deserializer,
+			MetricsListener metrics) {
+		return wrap(deserializer, metrics, true);
+	}
+
+	/**
+	 * like {@link #wrap(org.codehaus.jackson.map.JsonDeserializer, MetricsListener)}, new wrappers use the given location
+	 * tracking setting.
+	 */
+	public static <T> JsonDeserializer<T> wrap(org.codehaus.jackson.map.JsonDeserializer<T> deserializer,
+			MetricsListener metrics, boolean locationTracking) {
+		return wrap(deserializer, metrics, locationTracking, false);
+	}
+
+	/**
+	 * like {@link #wrap(org.codehaus.jackson.map.JsonDeserializer, MetricsListener, boolean)}, new wrappers use the given
+	 * exception translation setting.
+	 */
+	public static <T> JsonDeserializer<T> wrap(org.codehaus.jackson.map.JsonDeserializer<T> deserializer,
+			MetricsListener metrics, boolean locationTracking, boolean stacklessExceptions) {
+		if (deserializer == null) {
+			return null;
+		}
+		if (deserializer instanceof JsonDeserializer2To1Wrapper) {
+			return ((JsonDeserializer2To1Wrapper<T>) deserializer).unwrap();
+		}
+		return new JsonDeserializer1To2Wrapper<T>(deserializer, metrics, locationTracking, stacklessExceptions);
 	}
 
 	/**
@@ -34,9 +116,40 @@ public class JsonDeserializer1To2Wrapper<T> extends JsonDeserializer<T> {
 		return wrappedSerializer;
 	}
 
+	/**
+	 * @return the listener receiving the time spent in the wrapped deserializer
+	 */
+	public MetricsListener getMetricsListener() {
+		return metrics;
+	}
+
+	/**
+	 * @return <code>false</code> if parser locations are hidden from the wrapped deserializer
+	 */
+	public boolean isLocationTracking() {
+		return locationTracking;
+	}
+
+	/**
+	 * @return <code>true</code> if jackson 2 exceptions are translated without stack traces for the wrapped deserializer
+	 */
+	public boolean isStacklessExceptions() {
+		return stacklessExceptions;
+	}
+
 	@Override
 	public T deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException, JsonProcessingException {
-		return wrappedSerializer.deserialize(new JsonParser2To1Wrapper(jp), new DeserializationContext2to1Wrapper(ctxt));
+		boolean timed = NopMetricsListener.isEnabled(metrics);
+		long start = timed ? System.nanoTime() : 0L;
+		DeserializationScope scope = DeserializationScope.enter(jp, ctxt, locationTracking, stacklessExceptions);
+		try {
+			return wrappedSerializer.deserialize(scope.parser, scope.context);
+		} finally {
+			scope.exit();
+			if (timed) {
+				metrics.deserialized(wrappedSerializer.getClass(), System.nanoTime() - start);
+			}
+		}
 	}
 
 }
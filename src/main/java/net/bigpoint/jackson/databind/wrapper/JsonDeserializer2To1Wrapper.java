@@ -33,6 +33,21 @@ public class JsonDeserializer2To1Wrapper<T> extends org.codehaus.jackson.map.Jso
 		this.wrappedDeserializer = wrappedDeserializer;
 	}
 
+	/**
+	 * wraps the given jackson 2 deserializer. Wrappers of jackson 1 deserializers are unwrapped instead of wrapped again.
+	 * 
+	 * @return <code>null</code> if the given deserializer is <code>null</code>
+	 */
+	public static <T> org.codehaus.jackson.map.JsonDeserializer<T> wrap(JsonDeserializer<T> deserializer) {
+		if (deserializer == null) {
+			return null;
+		}
+		if (deserializer instanceof JsonDeserializer1To2Wrapper) {
+			return ((JsonDeserializer1To2Wrapper<T>) deserializer).unwrap();
+		}
+		return new JsonDeserializer2To1Wrapper<T>(deserializer);
+	}
+
 	/**
 	 * @return the wrappedSerializer
 	 */
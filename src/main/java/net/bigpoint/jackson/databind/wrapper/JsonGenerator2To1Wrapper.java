@@ -6,6 +6,9 @@ package net.bigpoint.jackson.databind.wrapper;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
 
 import org.codehaus.jackson.Base64Variant;
 import org.codehaus.jackson.JsonGenerationException;
@@ -14,7 +17,9 @@ import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.JsonParser;
 import org.codehaus.jackson.JsonProcessingException;
 import org.codehaus.jackson.JsonStreamContext;
+import org.codehaus.jackson.JsonToken;
 import org.codehaus.jackson.ObjectCodec;
+import org.codehaus.jackson.node.POJONode;
 
 /**
  * This class wrapps a jackson 2 serialization provider so it can be used by jackson 1 classes.
@@ -27,6 +32,18 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 
 	private com.fasterxml.jackson.core.JsonGenerator wrappedGenerator;
 
+	private ExceptionTranslation exceptions = ExceptionTranslation.DEFAULT;
+
+	/**
+	 * bridge to the codec of the wrapped generator, kept as long as the wrapped generators use the same codec
+	 */
+	private ObjectCodec2To1Wrapper codecBridge;
+
+	/**
+	 * codec set by {@link #setCodec(ObjectCodec)}, <code>null</code> to use the codec of the wrapped generator
+	 */
+	private ObjectCodec legacyCodec;
+
 	public JsonGenerator2To1Wrapper(com.fasterxml.jackson.core.JsonGenerator wrappedGenerator) {
 		this.wrappedGenerator = wrappedGenerator;
 	}
@@ -38,21 +55,49 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 		return wrappedGenerator;
 	}
 
+	/**
+	 * @return <code>true</code> if jackson 2 exceptions are translated without filling in a stack trace
+	 */
+	public boolean isStacklessExceptions() {
+		return exceptions.isStackless();
+	}
+
+	/**
+	 * Enables or disables stackless exception translation, see
+	 * {@link JsonParser2To1Wrapper#setStacklessExceptions(boolean)}.
+	 */
+	public void setStacklessExceptions(boolean stacklessExceptions) {
+		this.exceptions = ExceptionTranslation.of(stacklessExceptions);
+	}
+
+	ExceptionTranslation exceptionTranslation() {
+		return exceptions;
+	}
+
+	/**
+	 * makes this wrapper wrap another generator, used to reuse wrapper instances.
+	 */
+	void reset(com.fasterxml.jackson.core.JsonGenerator wrappedGenerator) {
+		this.wrappedGenerator = wrappedGenerator;
+		_cfgPrettyPrinter = null;
+		legacyCodec = null;
+	}
+
 	@Override
 	public JsonGenerator enable(Feature f) {
-		wrappedGenerator.enable(com.fasterxml.jackson.core.JsonGenerator.Feature.valueOf(f.name()));
+		wrappedGenerator.enable(JacksonTransformers.transformFeature(f));
 		return this;
 	}
 
 	@Override
 	public JsonGenerator disable(Feature f) {
-		wrappedGenerator.disable(com.fasterxml.jackson.core.JsonGenerator.Feature.valueOf(f.name()));
+		wrappedGenerator.disable(JacksonTransformers.transformFeature(f));
 		return this;
 	}
 
 	@Override
 	public boolean isEnabled(Feature f) {
-		return wrappedGenerator.isEnabled(com.fasterxml.jackson.core.JsonGenerator.Feature.valueOf(f.name()));
+		return wrappedGenerator.isEnabled(JacksonTransformers.transformFeature(f));
 	}
 
 	@Override
@@ -65,8 +110,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeStartArray() throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeStartArray();
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -74,8 +119,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeEndArray() throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeEndArray();
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -83,8 +128,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeStartObject() throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeStartObject();
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 
 	}
@@ -93,8 +138,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeEndObject() throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeEndObject();
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -102,8 +147,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeFieldName(String name) throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeFieldName(name);
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -111,8 +156,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeString(String text) throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeString(text);
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -120,8 +165,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeString(char[] text, int offset, int len) throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeString(text, offset, len);
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -129,8 +174,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeRawUTF8String(byte[] text, int offset, int length) throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeRawUTF8String(text, offset, length);
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -138,8 +183,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeUTF8String(byte[] text, int offset, int length) throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeUTF8String(text, offset, length);
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -147,8 +192,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeRaw(String text) throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeRaw(text);
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -156,8 +201,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeRaw(String text, int offset, int len) throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeRaw(text, offset, len);
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -165,8 +210,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeRaw(char[] text, int offset, int len) throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeRaw(text, offset, len);
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -174,8 +219,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeRaw(char c) throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeRaw(c);
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -183,8 +228,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeRawValue(String text) throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeRawValue(text);
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -192,8 +237,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeRawValue(String text, int offset, int len) throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeRawValue(text, offset, len);
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -201,8 +246,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeRawValue(char[] text, int offset, int len) throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeRawValue(text, offset, len);
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -210,8 +255,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeNumber(int v) throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeNumber(v);
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -219,8 +264,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeNumber(long v) throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeNumber(v);
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -228,8 +273,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeNumber(BigInteger v) throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeNumber(v);
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -237,8 +282,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeNumber(double d) throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeNumber(d);
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -246,8 +291,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeNumber(float f) throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeNumber(f);
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -255,8 +300,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeNumber(BigDecimal dec) throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeNumber(dec);
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -265,8 +310,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 			UnsupportedOperationException {
 		try {
 			wrappedGenerator.writeNumber(encodedValue);
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -274,8 +319,8 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeBoolean(boolean state) throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeBoolean(state);
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -283,17 +328,24 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	public void writeNull() throws IOException, JsonGenerationException {
 		try {
 			wrappedGenerator.writeNull();
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
+	/**
+	 * jackson 1 trees are written by {@link #writeTree(JsonNode)}, everything else by the wrapped generator.
+	 */
 	@Override
 	public void writeObject(Object pojo) throws IOException, JsonProcessingException {
+		if (pojo instanceof JsonNode) {
+			writeTree((JsonNode) pojo);
+			return;
+		}
 		try {
 			wrappedGenerator.writeObject(pojo);
-		} catch (JsonGenerationException e) {
-			throw new JsonGenerationException(e);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
 		}
 	}
 
@@ -312,14 +364,111 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 		wrappedGenerator.close();
 	}
 
+	/**
+	 * wrapped jackson 2 parsers are copied by the wrapped generator, other parsers token by token
+	 */
 	@Override
 	public void copyCurrentEvent(JsonParser jp) throws IOException, JsonProcessingException {
-		wrappedGenerator.copyCurrentEvent(((JsonParser2To1Wrapper) jp).unwrap());
+		if (jp instanceof JsonParser2To1Wrapper) {
+			wrappedGenerator.copyCurrentEvent(((JsonParser2To1Wrapper) jp).unwrap());
+			return;
+		}
+		JsonToken t = jp.getCurrentToken();
+		if (t == null) {
+			throw new JsonGenerationException("No current event to copy");
+		}
+		switch (t) {
+		case START_OBJECT:
+			writeStartObject();
+			break;
+		case END_OBJECT:
+			writeEndObject();
+			break;
+		case START_ARRAY:
+			writeStartArray();
+			break;
+		case END_ARRAY:
+			writeEndArray();
+			break;
+		case FIELD_NAME:
+			writeFieldName(jp.getCurrentName());
+			break;
+		case VALUE_STRING:
+			if (jp.hasTextCharacters()) {
+				writeString(jp.getTextCharacters(), jp.getTextOffset(), jp.getTextLength());
+			} else {
+				writeString(jp.getText());
+			}
+			break;
+		case VALUE_NUMBER_INT:
+			switch (jp.getNumberType()) {
+			case INT:
+				writeNumber(jp.getIntValue());
+				break;
+			case BIG_INTEGER:
+				writeNumber(jp.getBigIntegerValue());
+				break;
+			default:
+				writeNumber(jp.getLongValue());
+			}
+			break;
+		case VALUE_NUMBER_FLOAT:
+			switch (jp.getNumberType()) {
+			case BIG_DECIMAL:
+				writeNumber(jp.getDecimalValue());
+				break;
+			case FLOAT:
+				writeNumber(jp.getFloatValue());
+				break;
+			default:
+				writeNumber(jp.getDoubleValue());
+			}
+			break;
+		case VALUE_TRUE:
+			writeBoolean(true);
+			break;
+		case VALUE_FALSE:
+			writeBoolean(false);
+			break;
+		case VALUE_NULL:
+			writeNull();
+			break;
+		case VALUE_EMBEDDED_OBJECT:
+			writeObject(jp.getEmbeddedObject());
+			break;
+		default:
+			throw new IllegalStateException("Unexpected token " + t);
+		}
 	}
 
+	/**
+	 * wrapped jackson 2 parsers are copied by the wrapped generator. Other parsers are copied token by token without
+	 * recursion, so deeply nested input does not exhaust the stack.
+	 */
 	@Override
 	public void copyCurrentStructure(JsonParser jp) throws IOException, JsonProcessingException {
-		wrappedGenerator.copyCurrentStructure(((JsonParser2To1Wrapper) jp).unwrap());
+		if (jp instanceof JsonParser2To1Wrapper) {
+			wrappedGenerator.copyCurrentStructure(((JsonParser2To1Wrapper) jp).unwrap());
+			return;
+		}
+		JsonToken t = jp.getCurrentToken();
+		if (t == JsonToken.FIELD_NAME) {
+			writeFieldName(jp.getCurrentName());
+			t = jp.nextToken();
+		}
+		int depth = 0;
+		for (;;) {
+			copyCurrentEvent(jp);
+			if (t == JsonToken.START_OBJECT || t == JsonToken.START_ARRAY) {
+				++depth;
+			} else if (t == JsonToken.END_OBJECT || t == JsonToken.END_ARRAY) {
+				--depth;
+			}
+			if (depth == 0) {
+				return;
+			}
+			t = jp.nextToken();
+		}
 	}
 
 	/**
@@ -332,27 +481,140 @@ public class JsonGenerator2To1Wrapper extends JsonGenerator {
 	}
 
 	/**
-	 * Not supported
+	 * Bridges are unwrapped and set on the wrapped generator, other codecs are only returned by {@link #getCodec()}.
 	 */
 	@Override
 	public JsonGenerator setCodec(ObjectCodec oc) {
+		if (oc instanceof ObjectCodec2To1Wrapper) {
+			wrappedGenerator.setCodec(((ObjectCodec2To1Wrapper) oc).unwrap());
+			legacyCodec = null;
+		} else {
+			legacyCodec = oc;
+		}
 		return this;
 	}
 
 	/**
-	 * Not supported
+	 * @return the codec set by {@link #setCodec(ObjectCodec)} or a bridge to the codec of the wrapped generator
 	 */
 	@Override
 	public ObjectCodec getCodec() {
-		throw new RuntimeException();
+		if (legacyCodec != null) {
+			return legacyCodec;
+		}
+		com.fasterxml.jackson.core.ObjectCodec codec = wrappedGenerator.getCodec();
+		if (codec == null) {
+			return null;
+		}
+		ObjectCodec2To1Wrapper bridge = codecBridge;
+		if (bridge == null || bridge.unwrap() != codec || bridge.exceptionTranslation() != exceptions) {
+			bridge = new ObjectCodec2To1Wrapper(codec, exceptions);
+			codecBridge = bridge;
+		}
+		return bridge;
 	}
 
 	/**
-	 * Not supported
+	 * Streams the tree into the wrapped generator, without recursion and without a jackson 2 copy of the tree. Values of
+	 * POJO nodes are written by {@link #writeObject(Object)}.
 	 */
 	@Override
 	public void writeTree(JsonNode rootNode) throws IOException, JsonProcessingException {
-		throw new RuntimeException();
+		try {
+			if (rootNode == null || !rootNode.isContainerNode()) {
+				writeValueNode(rootNode);
+				return;
+			}
+			// open containers and the iterators over their remaining children
+			ArrayDeque<JsonNode> containers = new ArrayDeque<JsonNode>();
+			ArrayDeque<Iterator<?>> children = new ArrayDeque<Iterator<?>>();
+			JsonNode node = rootNode;
+			while (true) {
+				if (node == null || !node.isContainerNode()) {
+					writeValueNode(node);
+				} else {
+					if (node.isObject()) {
+						wrappedGenerator.writeStartObject();
+						children.push(node.getFields());
+					} else {
+						wrappedGenerator.writeStartArray();
+						children.push(node.getElements());
+					}
+					containers.push(node);
+				}
+				Iterator<?> remaining = children.peek();
+				while (!remaining.hasNext()) {
+					children.pop();
+					if (containers.pop().isObject()) {
+						wrappedGenerator.writeEndObject();
+					} else {
+						wrappedGenerator.writeEndArray();
+					}
+					if (children.isEmpty()) {
+						return;
+					}
+					remaining = children.peek();
+				}
+				Object child = remaining.next();
+				if (child instanceof Map.Entry) {
+					@SuppressWarnings("unchecked")
+					Map.Entry<String, JsonNode> field = (Map.Entry<String, JsonNode>) child;
+					wrappedGenerator.writeFieldName(field.getKey());
+					node = field.getValue();
+				} else {
+					node = (JsonNode) child;
+				}
+			}
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
+		}
+	}
+
+	private void writeValueNode(JsonNode node) throws IOException, JsonProcessingException {
+		if (node == null) {
+			wrappedGenerator.writeNull();
+			return;
+		}
+		switch (node.asToken()) {
+		case VALUE_STRING:
+			wrappedGenerator.writeString(node.getTextValue());
+			break;
+		case VALUE_NUMBER_INT:
+		case VALUE_NUMBER_FLOAT:
+			switch (node.getNumberType()) {
+			case INT:
+				wrappedGenerator.writeNumber(node.getIntValue());
+				break;
+			case LONG:
+				wrappedGenerator.writeNumber(node.getLongValue());
+				break;
+			case BIG_INTEGER:
+				wrappedGenerator.writeNumber(node.getBigIntegerValue());
+				break;
+			case BIG_DECIMAL:
+				wrappedGenerator.writeNumber(node.getDecimalValue());
+				break;
+			default:
+				wrappedGenerator.writeNumber(node.getDoubleValue());
+			}
+			break;
+		case VALUE_TRUE:
+			wrappedGenerator.writeBoolean(true);
+			break;
+		case VALUE_FALSE:
+			wrappedGenerator.writeBoolean(false);
+			break;
+		case VALUE_EMBEDDED_OBJECT:
+			if (node.isBinary()) {
+				wrappedGenerator.writeBinary(node.getBinaryValue());
+			} else {
+				writeObject(((POJONode) node).getPojo());
+			}
+			break;
+		default:
+			// null and missing nodes
+			wrappedGenerator.writeNull();
+		}
 	}
 
 	/**
@@ -0,0 +1,275 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.wrapper;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.JsonProcessingException;
+import org.codehaus.jackson.node.ArrayNode;
+import org.codehaus.jackson.node.BinaryNode;
+import org.codehaus.jackson.node.JsonNodeFactory;
+import org.codehaus.jackson.node.MissingNode;
+import org.codehaus.jackson.node.ObjectNode;
+import org.codehaus.jackson.node.POJONode;
+
+/**
+ * Converts jackson 1 trees to jackson 2 trees and back without writing them as text. The trees are walked with an
+ * explicit stack, so deeply nested trees do not exhaust the call stack.
+ * 
+ * Only the containers are copied: texts, numbers, binary data and POJOs of the leaves are shared by both trees, and
+ * booleans, <code>null</code> and missing nodes map to the canonical instances of the other version. Containers that
+ * appear more than once in the source tree are converted once and appear at the same places in the converted tree.
+ * 
+ * The streaming variants read and write the jackson 1 tree directly from and to jackson 2 parsers and generators via
+ * {@link JsonParser2To1Wrapper} and {@link JsonGenerator2To1Wrapper}.
+ */
+public final class JsonNodeConverter {
+
+	private JsonNodeConverter() {
+	}
+
+	/**
+	 * @return <code>null</code> if the given node is <code>null</code>
+	 */
+	public static com.fasterxml.jackson.databind.JsonNode toJackson2(JsonNode node) {
+		if (node == null || !node.isContainerNode()) {
+			return toJackson2Value(node);
+		}
+		Map<JsonNode, com.fasterxml.jackson.databind.JsonNode> converted =
+				new IdentityHashMap<JsonNode, com.fasterxml.jackson.databind.JsonNode>();
+		ArrayDeque<Iterator<?>> sources = new ArrayDeque<Iterator<?>>();
+		ArrayDeque<com.fasterxml.jackson.databind.JsonNode> targets =
+				new ArrayDeque<com.fasterxml.jackson.databind.JsonNode>();
+		com.fasterxml.jackson.databind.JsonNode root = toJackson2Container(node, converted, sources, targets);
+		while (!sources.isEmpty()) {
+			Iterator<?> children = sources.peek();
+			if (!children.hasNext()) {
+				sources.pop();
+				targets.pop();
+				continue;
+			}
+			com.fasterxml.jackson.databind.JsonNode parent = targets.peek();
+			Object child = children.next();
+			String fieldName = null;
+			JsonNode value;
+			if (child instanceof Map.Entry) {
+				Map.Entry<?, ?> field = (Map.Entry<?, ?>) child;
+				fieldName = (String) field.getKey();
+				value = (JsonNode) field.getValue();
+			} else {
+				value = (JsonNode) child;
+			}
+			com.fasterxml.jackson.databind.JsonNode target;
+			if (value == null || !value.isContainerNode()) {
+				target = toJackson2Value(value);
+			} else {
+				target = converted.get(value);
+				if (target == null) {
+					target = toJackson2Container(value, converted, sources, targets);
+				}
+			}
+			if (parent.isObject()) {
+				((com.fasterxml.jackson.databind.node.ObjectNode) parent).put(fieldName, target);
+			} else {
+				((com.fasterxml.jackson.databind.node.ArrayNode) parent).add(target);
+			}
+		}
+		return root;
+	}
+
+	/**
+	 * @return <code>null</code> if the given node is <code>null</code>
+	 */
+	public static JsonNode toJackson1(com.fasterxml.jackson.databind.JsonNode node) {
+		if (node == null || !node.isContainerNode()) {
+			return toJackson1Value(node);
+		}
+		Map<com.fasterxml.jackson.databind.JsonNode, JsonNode> converted =
+				new IdentityHashMap<com.fasterxml.jackson.databind.JsonNode, JsonNode>();
+		ArrayDeque<Iterator<?>> sources = new ArrayDeque<Iterator<?>>();
+		ArrayDeque<JsonNode> targets = new ArrayDeque<JsonNode>();
+		JsonNode root = toJackson1Container(node, converted, sources, targets);
+		while (!sources.isEmpty()) {
+			Iterator<?> children = sources.peek();
+			if (!children.hasNext()) {
+				sources.pop();
+				targets.pop();
+				continue;
+			}
+			JsonNode parent = targets.peek();
+			Object child = children.next();
+			String fieldName = null;
+			com.fasterxml.jackson.databind.JsonNode value;
+			if (child instanceof Map.Entry) {
+				Map.Entry<?, ?> field = (Map.Entry<?, ?>) child;
+				fieldName = (String) field.getKey();
+				value = (com.fasterxml.jackson.databind.JsonNode) field.getValue();
+			} else {
+				value = (com.fasterxml.jackson.databind.JsonNode) child;
+			}
+			JsonNode target;
+			if (value == null || !value.isContainerNode()) {
+				target = toJackson1Value(value);
+			} else {
+				target = converted.get(value);
+				if (target == null) {
+					target = toJackson1Container(value, converted, sources, targets);
+				}
+			}
+			if (parent.isObject()) {
+				((ObjectNode) parent).put(fieldName, target);
+			} else {
+				((ArrayNode) parent).add(target);
+			}
+		}
+		return root;
+	}
+
+	/**
+	 * writes the jackson 1 tree to the jackson 2 generator, see {@link JsonGenerator2To1Wrapper#writeTree(JsonNode)}
+	 */
+	public static void writeJackson1Tree(JsonNode node, com.fasterxml.jackson.core.JsonGenerator jgen)
+			throws IOException, JsonProcessingException {
+		new JsonGenerator2To1Wrapper(jgen).writeTree(node);
+	}
+
+	/**
+	 * reads the value at the current token of the jackson 2 parser (or the next one if there is no current token) as
+	 * jackson 1 tree, see {@link ObjectCodec2To1Wrapper#readTree(org.codehaus.jackson.JsonParser)}
+	 * 
+	 * @return <code>null</code> at the end of input
+	 */
+	public static JsonNode readJackson1Tree(com.fasterxml.jackson.core.JsonParser jp) throws IOException,
+			JsonProcessingException {
+		return new ObjectCodec2To1Wrapper(jp.getCodec()).readTree(new JsonParser2To1Wrapper(jp));
+	}
+
+	/**
+	 * creates the empty jackson 2 container for the given jackson 1 container and pushes both on the stacks
+	 */
+	private static com.fasterxml.jackson.databind.JsonNode toJackson2Container(JsonNode node,
+			Map<JsonNode, com.fasterxml.jackson.databind.JsonNode> converted, ArrayDeque<Iterator<?>> sources,
+			ArrayDeque<com.fasterxml.jackson.databind.JsonNode> targets) {
+		com.fasterxml.jackson.databind.node.JsonNodeFactory factory =
+				com.fasterxml.jackson.databind.node.JsonNodeFactory.instance;
+		com.fasterxml.jackson.databind.JsonNode container;
+		if (node.isObject()) {
+			container = factory.objectNode();
+			sources.push(node.getFields());
+		} else {
+			container = factory.arrayNode();
+			sources.push(node.getElements());
+		}
+		targets.push(container);
+		converted.put(node, container);
+		return container;
+	}
+
+	/**
+	 * creates the empty jackson 1 container for the given jackson 2 container and pushes both on the stacks
+	 */
+	private static JsonNode toJackson1Container(com.fasterxml.jackson.databind.JsonNode node,
+			Map<com.fasterxml.jackson.databind.JsonNode, JsonNode> converted, ArrayDeque<Iterator<?>> sources,
+			ArrayDeque<JsonNode> targets) {
+		JsonNode container;
+		if (node.isObject()) {
+			container = JsonNodeFactory.instance.objectNode();
+			sources.push(node.fields());
+		} else {
+			container = JsonNodeFactory.instance.arrayNode();
+			sources.push(node.elements());
+		}
+		targets.push(container);
+		converted.put(node, container);
+		return container;
+	}
+
+	private static com.fasterxml.jackson.databind.JsonNode toJackson2Value(JsonNode node) {
+		if (node == null) {
+			return null;
+		}
+		com.fasterxml.jackson.databind.node.JsonNodeFactory factory =
+				com.fasterxml.jackson.databind.node.JsonNodeFactory.instance;
+		switch (node.asToken()) {
+		case VALUE_STRING:
+			return factory.textNode(node.getTextValue());
+		case VALUE_NUMBER_INT:
+			switch (node.getNumberType()) {
+			case INT:
+				return factory.numberNode(node.getIntValue());
+			case LONG:
+				return factory.numberNode(node.getLongValue());
+			default:
+				return factory.numberNode(node.getBigIntegerValue());
+			}
+		case VALUE_NUMBER_FLOAT:
+			if (node.getNumberType() == org.codehaus.jackson.JsonParser.NumberType.BIG_DECIMAL) {
+				return factory.numberNode(node.getDecimalValue());
+			}
+			return factory.numberNode(node.getDoubleValue());
+		case VALUE_TRUE:
+			return factory.booleanNode(true);
+		case VALUE_FALSE:
+			return factory.booleanNode(false);
+		case VALUE_EMBEDDED_OBJECT:
+			if (node.isBinary()) {
+				return factory.binaryNode(((BinaryNode) node).getBinaryValue());
+			}
+			return factory.POJONode(((POJONode) node).getPojo());
+		case VALUE_NULL:
+			return factory.nullNode();
+		default:
+			if (node.isMissingNode()) {
+				return com.fasterxml.jackson.databind.node.MissingNode.getInstance();
+			}
+			throw new IllegalArgumentException("Unsupported node " + node.getClass().getName());
+		}
+	}
+
+	private static JsonNode toJackson1Value(com.fasterxml.jackson.databind.JsonNode node) {
+		if (node == null) {
+			return null;
+		}
+		JsonNodeFactory factory = JsonNodeFactory.instance;
+		switch (node.asToken()) {
+		case VALUE_STRING:
+			return factory.textNode(node.textValue());
+		case VALUE_NUMBER_INT:
+			switch (node.numberType()) {
+			case INT:
+				return factory.numberNode(node.intValue());
+			case LONG:
+				return factory.numberNode(node.longValue());
+			default:
+				return factory.numberNode(node.bigIntegerValue());
+			}
+		case VALUE_NUMBER_FLOAT:
+			if (node.numberType() == com.fasterxml.jackson.core.JsonParser.NumberType.BIG_DECIMAL) {
+				return factory.numberNode(node.decimalValue());
+			}
+			return factory.numberNode(node.doubleValue());
+		case VALUE_TRUE:
+			return factory.booleanNode(true);
+		case VALUE_FALSE:
+			return factory.booleanNode(false);
+		case VALUE_EMBEDDED_OBJECT:
+			if (node.isBinary()) {
+				return factory.binaryNode(((com.fasterxml.jackson.databind.node.BinaryNode) node).binaryValue());
+			}
+			return factory.POJONode(((com.fasterxml.jackson.databind.node.POJONode) node).getPojo());
+		case VALUE_NULL:
+			return factory.nullNode();
+		default:
+			if (node.isMissingNode()) {
+				return MissingNode.getInstance();
+			}
+			throw new IllegalArgumentException("Unsupported node " + node.getClass().getName());
+		}
+	}
+}
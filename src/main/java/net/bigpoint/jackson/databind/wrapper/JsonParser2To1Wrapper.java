@@ -3,14 +3,14 @@
  */
 package net.bigpoint.jackson.databind.wrapper;
 
-import static net.bigpoint.jackson.databind.wrapper.JacksonTransformers.wrapJsonParseException;
-
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.Iterator;
 
+import com.fasterxml.jackson.core.base.ParserBase;
 import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.codehaus.jackson.Base64Variant;
 import org.codehaus.jackson.JsonLocation;
 import org.codehaus.jackson.JsonParseException;
@@ -30,6 +30,31 @@ public class JsonParser2To1Wrapper extends JsonParser {
 
 	private com.fasterxml.jackson.core.JsonParser wrappedParser;
 
+	private boolean locationTracking = true;
+
+	private ExceptionTranslation exceptions = ExceptionTranslation.DEFAULT;
+
+	/**
+	 * the locations returned last, handed out again as long as the parser stays at the same position
+	 */
+	private JsonLocation tokenLocation;
+
+	private JsonLocation currentLocation;
+
+	private Object sourceRef;
+
+	private boolean sourceRefKnown;
+
+	/**
+	 * bridge to the codec of the wrapped parser, kept as long as the wrapped parsers use the same codec
+	 */
+	private ObjectCodec2To1Wrapper codecBridge;
+
+	/**
+	 * codec set by {@link #setCodec(ObjectCodec)}, <code>null</code> to use the codec of the wrapped parser
+	 */
+	private ObjectCodec legacyCodec;
+
 	/**
 	 * @param wrappedParser
 	 */
@@ -45,16 +70,91 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		return wrappedParser;
 	}
 
+	/**
+	 * makes this wrapper wrap another parser, used to reuse wrapper instances.
+	 */
+	void reset(com.fasterxml.jackson.core.JsonParser wrappedParser) {
+		this.wrappedParser = wrappedParser;
+		tokenLocation = null;
+		currentLocation = null;
+		sourceRef = null;
+		sourceRefKnown = false;
+		legacyCodec = null;
+	}
+
+	/**
+	 * @return <code>false</code> if this parser reports {@link JsonLocation#NA} as token and current location
+	 */
+	public boolean isLocationTracking() {
+		return locationTracking;
+	}
+
+	/**
+	 * Disables or enables location reporting. Without tracking {@link #getTokenLocation()} and
+	 * {@link #getCurrentLocation()} return {@link JsonLocation#NA} without asking the wrapped parser.
+	 */
+	public void setLocationTracking(boolean locationTracking) {
+		this.locationTracking = locationTracking;
+	}
+
+	/**
+	 * @return <code>true</code> if jackson 2 exceptions are translated without filling in a stack trace
+	 */
+	public boolean isStacklessExceptions() {
+		return exceptions.isStackless();
+	}
+
+	/**
+	 * Enables or disables stackless exception translation. Stackless exceptions keep the jackson 2 exception as cause
+	 * but do not fill in their own stack trace, which is cheap for deserializers that use exceptions for control flow.
+	 * Codecs returned by {@link #getCodec()} translate the same way.
+	 */
+	public void setStacklessExceptions(boolean stacklessExceptions) {
+		this.exceptions = ExceptionTranslation.of(stacklessExceptions);
+	}
+
+	ExceptionTranslation exceptionTranslation() {
+		return exceptions;
+	}
+
+	/**
+	 * @return the codec set by {@link #setCodec(ObjectCodec)} or a bridge to the codec of the wrapped parser
+	 */
 	@Override
 	public ObjectCodec getCodec() {
-		// TODO Auto-generated method stub
-		return null;
+		if (legacyCodec != null) {
+			return legacyCodec;
+		}
+		com.fasterxml.jackson.core.ObjectCodec codec = wrappedParser.getCodec();
+		if (codec == null) {
+			return null;
+		}
+		return codecBridge(codec);
+	}
+
+	/**
+	 * @return the bridge to the given codec of the wrapped parser
+	 */
+	private ObjectCodec2To1Wrapper codecBridge(com.fasterxml.jackson.core.ObjectCodec codec) {
+		ObjectCodec2To1Wrapper bridge = codecBridge;
+		if (bridge == null || bridge.unwrap() != codec || bridge.exceptionTranslation() != exceptions) {
+			bridge = new ObjectCodec2To1Wrapper(codec, exceptions);
+			codecBridge = bridge;
+		}
+		return bridge;
 	}
 
+	/**
+	 * Bridges are unwrapped and set on the wrapped parser, other codecs are only used by this wrapper.
+	 */
 	@Override
 	public void setCodec(ObjectCodec c) {
-		// TODO Auto-generated method stub
-
+		if (c instanceof ObjectCodec2To1Wrapper) {
+			wrappedParser.setCodec(((ObjectCodec2To1Wrapper) c).unwrap());
+			legacyCodec = null;
+		} else {
+			legacyCodec = c;
+		}
 	}
 
 	@Override
@@ -78,7 +178,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return JacksonTransformers.transformJsonToken(wrappedParser.nextToken());
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -88,7 +188,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 			wrappedParser = wrappedParser.skipChildren();
 			return this;
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -102,22 +202,65 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getCurrentName();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
+	/**
+	 * Repeated calls for the same token return the same instance. Locations of jackson 2 parsers based on
+	 * {@link ParserBase} are built from the token position directly, without a jackson 2 location.
+	 */
 	@Override
 	public JsonLocation getTokenLocation() {
-		com.fasterxml.jackson.core.JsonLocation location = wrappedParser.getTokenLocation();
-		return new JsonLocation(location.getSourceRef(), location.getCharOffset(), location.getByteOffset(),
-				location.getLineNr(), location.getColumnNr());
+		if (!locationTracking) {
+			return JsonLocation.NA;
+		}
+		if (wrappedParser instanceof ParserBase) {
+			ParserBase parser = (ParserBase) wrappedParser;
+			long charOffset = parser.getTokenCharacterOffset();
+			int lineNr = parser.getTokenLineNr();
+			int columnNr = parser.getTokenColumnNr();
+			JsonLocation location = tokenLocation;
+			if (location == null || location.getCharOffset() != charOffset || location.getLineNr() != lineNr
+					|| location.getColumnNr() != columnNr) {
+				if (!sourceRefKnown) {
+					sourceRef = parser.getTokenLocation().getSourceRef();
+					sourceRefKnown = true;
+				}
+				// ParserBase does not track byte offsets of tokens
+				location = new JsonLocation(sourceRef, -1L, charOffset, lineNr, columnNr);
+				tokenLocation = location;
+			}
+			return location;
+		}
+		tokenLocation = reuse(tokenLocation, wrappedParser.getTokenLocation());
+		return tokenLocation;
 	}
 
+	/**
+	 * Repeated calls for the same position return the same instance.
+	 */
 	@Override
 	public JsonLocation getCurrentLocation() {
-		com.fasterxml.jackson.core.JsonLocation location = wrappedParser.getCurrentLocation();
-		return new JsonLocation(location.getSourceRef(), location.getCharOffset(), location.getByteOffset(),
-				location.getLineNr(), location.getColumnNr());
+		if (!locationTracking) {
+			return JsonLocation.NA;
+		}
+		currentLocation = reuse(currentLocation, wrappedParser.getCurrentLocation());
+		return currentLocation;
+	}
+
+	/**
+	 * @return the given jackson 1 location if it describes the same position as the jackson 2 location, a new jackson 1
+	 *         location otherwise
+	 */
+	private static JsonLocation reuse(JsonLocation previous, com.fasterxml.jackson.core.JsonLocation location) {
+		if (previous != null && location != null && previous.getSourceRef() == location.getSourceRef()
+				&& previous.getCharOffset() == location.getCharOffset()
+				&& previous.getByteOffset() == location.getByteOffset() && previous.getLineNr() == location.getLineNr()
+				&& previous.getColumnNr() == location.getColumnNr()) {
+			return previous;
+		}
+		return JacksonTransformers.transformJsonLocation(location);
 	}
 
 	@Override
@@ -125,7 +268,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getText();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -134,7 +277,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getTextCharacters();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -143,7 +286,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getTextLength();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -152,7 +295,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getTextOffset();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -161,7 +304,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getNumberValue();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -170,7 +313,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return JacksonTransformers.transformNumberType(wrappedParser.getNumberType());
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -179,7 +322,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getIntValue();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -188,7 +331,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getLongValue();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -197,7 +340,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getBigIntegerValue();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -206,7 +349,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getFloatValue();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -215,7 +358,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getDoubleValue();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -224,7 +367,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getDecimalValue();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -253,19 +396,25 @@ public class JsonParser2To1Wrapper extends JsonParser {
 
 	@Override
 	public <T> Iterator<T> readValuesAs(Class<T> valueType) throws IOException, JsonProcessingException {
+		if (legacyCodec != null) {
+			return legacyCodec.readValues(this, valueType);
+		}
 		try {
 			return wrappedParser.readValuesAs(valueType);
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
 	@Override
 	public <T> T readValueAs(Class<T> valueType) throws IOException, JsonProcessingException {
+		if (legacyCodec != null) {
+			return legacyCodec.readValue(this, valueType);
+		}
 		try {
 			return wrappedParser.readValueAs(valueType);
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -274,7 +423,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getValueAsBoolean(defaultValue);
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -283,7 +432,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return JacksonTransformers.transformJsonToken(wrappedParser.nextValue());
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -292,7 +441,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.nextFieldName(new SerializedString(str.getValue()));
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -301,7 +450,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.nextTextValue();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -310,7 +459,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.nextIntValue(defaultValue);
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -319,7 +468,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.nextLongValue(defaultValue);
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -328,7 +477,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.nextBooleanValue();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -362,7 +511,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getByteValue();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -371,7 +520,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getShortValue();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -380,7 +529,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getBooleanValue();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -389,7 +538,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getEmbeddedObject();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -398,7 +547,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getBinaryValue();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -407,7 +556,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getValueAsInt();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -416,7 +565,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getValueAsInt(defaultValue);
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -425,7 +574,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getValueAsLong();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -434,7 +583,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getValueAsLong(defaultValue);
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -443,7 +592,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getValueAsDouble();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -452,7 +601,7 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getValueAsDouble(defaultValue);
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
@@ -461,25 +610,42 @@ public class JsonParser2To1Wrapper extends JsonParser {
 		try {
 			return wrappedParser.getValueAsBoolean();
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
 	@Override
 	public <T> T readValueAs(TypeReference<?> valueTypeRef) throws IOException, JsonProcessingException {
+		if (legacyCodec != null) {
+			return legacyCodec.<T> readValue(this, valueTypeRef);
+		}
 		try {
+			com.fasterxml.jackson.core.ObjectCodec codec = wrappedParser.getCodec();
+			if (codec instanceof ObjectMapper) {
+				// the bridge keeps the resolved type
+				ObjectMapper mapper = (ObjectMapper) codec;
+				return mapper.readValue(wrappedParser, codecBridge(mapper).jackson2Type(mapper, valueTypeRef));
+			}
 			return wrappedParser.readValueAs(JacksonTransformers.transformTypeReference(valueTypeRef));
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 
 	@Override
 	public <T> Iterator<T> readValuesAs(TypeReference<?> valueTypeRef) throws IOException, JsonProcessingException {
+		if (legacyCodec != null) {
+			return legacyCodec.<T> readValues(this, valueTypeRef);
+		}
 		try {
+			com.fasterxml.jackson.core.ObjectCodec codec = wrappedParser.getCodec();
+			if (codec instanceof ObjectMapper) {
+				ObjectMapper mapper = (ObjectMapper) codec;
+				return mapper.readValues(wrappedParser, codecBridge(mapper).jackson2Type(mapper, valueTypeRef));
+			}
 			return wrappedParser.readValuesAs(JacksonTransformers.transformTypeReference(valueTypeRef));
 		} catch (com.fasterxml.jackson.core.JsonParseException e) {
-			throw wrapJsonParseException(e);
+			throw exceptions.wrapJsonParseException(e);
 		}
 	}
 }
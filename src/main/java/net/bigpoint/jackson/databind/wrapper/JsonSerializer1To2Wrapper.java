@@ -5,6 +5,9 @@ package net.bigpoint.jackson.databind.wrapper;
 
 import java.io.IOException;
 
+import net.bigpoint.jackson.databind.metrics.MetricsListener;
+import net.bigpoint.jackson.databind.metrics.NopMetricsListener;
+
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonSerializer;
@@ -19,12 +22,69 @@ public class JsonSerializer1To2Wrapper<T> extends JsonSerializer<T> {
 
 	private org.codehaus.jackson.map.JsonSerializer<T> wrappedSerializer;
 
+	private final MetricsListener metrics;
+
+	private final boolean stacklessExceptions;
+
 	/**
 	 * @param wrappedSerializer
 	 */
 	public JsonSerializer1To2Wrapper(org.codehaus.jackson.map.JsonSerializer<T> wrappedSerializer) {
+		this(wrappedSerializer, NopMetricsListener.instance);
+	}
+
+	/**
+	 * @param metrics
+	 *            receives the time spent in the wrapped serializer
+	 */
+	public JsonSerializer1To2Wrapper(org.codehaus.jackson.map.JsonSerializer<T> wrappedSerializer,
+			MetricsListener metrics) {
+		this(wrappedSerializer, metrics, false);
+	}
+
+	/**
+	 * @param stacklessExceptions
+	 *            <code>true</code> to translate jackson 2 exceptions without stack traces, see
+	 *            {@link JsonGenerator2To1Wrapper#setStacklessExceptions(boolean)}
+	 */
+	public JsonSerializer1To2Wrapper(org.codehaus.jackson.map.JsonSerializer<T> wrappedSerializer,
+			MetricsListener metrics, boolean stacklessExceptions) {
 		super();
 		this.wrappedSerializer = wrappedSerializer;
+		this.metrics = metrics;
+		this.stacklessExceptions = stacklessExceptions;
+	}
+
+	/**
+	 * wraps the given jackson 1 serializer. Wrappers of jackson 2 serializers are unwrapped instead of wrapped again.
+	 * 
+	 * @return <code>null</code> if the given serializer is <code>null</code>
+	 */
+	public static <T> JsonSerializer<T> wrap(org.codehaus.jackson.map.JsonSerializer<T> serializer) {
+		return wrap(serializer, NopMetricsListener.instance);
+	}
+
+	/**
+	 * like {@link #wrap(org.codehaus.jackson.map.JsonSerializer)}, new wrappers report to the given listener.
+	 */
+	public static <T> JsonSerializer<T> wrap(org.codehaus.jackson.map.JsonSerializer<T> serializer,
+			MetricsListener metrics) {
+		return wrap(serializer, metrics, false);
+	}
+
+	/**
+	 * like {@link #wrap(org.codehaus.jackson.map.JsonSerializer, MetricsListener)}, new wrappers use the given exception
+	 * translation setting.
+	 */
+	public static <T> JsonSerializer<T> wrap(org.codehaus.jackson.map.JsonSerializer<T> serializer,
+			MetricsListener metrics, boolean stacklessExceptions) {
+		if (serializer == null) {
+			return null;
+		}
+		if (serializer instanceof JsonSerializer2To1Wrapper) {
+			return ((JsonSerializer2To1Wrapper<T>) serializer).unwrap();
+		}
+		return new JsonSerializer1To2Wrapper<T>(serializer, metrics, stacklessExceptions);
 	}
 
 	/**
@@ -37,7 +97,17 @@ public class JsonSerializer1To2Wrapper<T> extends JsonSerializer<T> {
 	@Override
 	public void serialize(T value, JsonGenerator jgen, SerializerProvider provider) throws IOException,
 			JsonProcessingException {
-		wrappedSerializer.serialize(value, new JsonGenerator2To1Wrapper(jgen), new SerializerProvider2To1Wrapper(provider));
+		boolean timed = NopMetricsListener.isEnabled(metrics);
+		long start = timed ? System.nanoTime() : 0L;
+		SerializationScope scope = SerializationScope.enter(jgen, provider, stacklessExceptions);
+		try {
+			wrappedSerializer.serialize(value, scope.generator, scope.provider);
+		} finally {
+			scope.exit();
+			if (timed) {
+				metrics.serialized(wrappedSerializer.getClass(), System.nanoTime() - start);
+			}
+		}
 	}
 
 }
@@ -33,6 +33,21 @@ public class JsonSerializer2To1Wrapper<T> extends org.codehaus.jackson.map.JsonS
 		this.wrappedSerializer = wrappedSerializer;
 	}
 
+	/**
+	 * wraps the given jackson 2 serializer. Wrappers of jackson 1 serializers are unwrapped instead of wrapped again.
+	 * 
+	 * @return <code>null</code> if the given serializer is <code>null</code>
+	 */
+	public static <T> org.codehaus.jackson.map.JsonSerializer<T> wrap(JsonSerializer<T> serializer) {
+		if (serializer == null) {
+			return null;
+		}
+		if (serializer instanceof JsonSerializer1To2Wrapper) {
+			return ((JsonSerializer1To2Wrapper<T>) serializer).unwrap();
+		}
+		return new JsonSerializer2To1Wrapper<T>(serializer);
+	}
+
 	/**
 	 * @return the wrappedSerializer
 	 */
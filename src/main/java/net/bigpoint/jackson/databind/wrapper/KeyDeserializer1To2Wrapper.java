@@ -5,6 +5,9 @@ package net.bigpoint.jackson.databind.wrapper;
 
 import java.io.IOException;
 
+import net.bigpoint.jackson.databind.metrics.MetricsListener;
+import net.bigpoint.jackson.databind.metrics.NopMetricsListener;
+
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.KeyDeserializer;
@@ -17,8 +20,20 @@ public class KeyDeserializer1To2Wrapper extends KeyDeserializer {
 
 	private org.codehaus.jackson.map.KeyDeserializer wrappedDeserializer;
 
+	private final MetricsListener metrics;
+
 	public KeyDeserializer1To2Wrapper(org.codehaus.jackson.map.KeyDeserializer wrappedDeserializer) {
+		this(wrappedDeserializer, NopMetricsListener.instance);
+	}
+
+	/**
+	 * @param metrics
+	 *            receives the time spent in the wrapped key deserializer
+	 */
+	public KeyDeserializer1To2Wrapper(org.codehaus.jackson.map.KeyDeserializer wrappedDeserializer,
+			MetricsListener metrics) {
 		this.wrappedDeserializer = wrappedDeserializer;
+		this.metrics = metrics;
 	}
 
 	/**
@@ -28,9 +43,26 @@ public class KeyDeserializer1To2Wrapper extends KeyDeserializer {
 		return wrappedDeserializer;
 	}
 
+	/**
+	 * @return the listener receiving the time spent in the wrapped key deserializer
+	 */
+	public MetricsListener getMetricsListener() {
+		return metrics;
+	}
+
 	@Override
 	public Object deserializeKey(String key, DeserializationContext ctxt) throws IOException, JsonProcessingException {
-		return wrappedDeserializer.deserializeKey(key, new DeserializationContext2to1Wrapper(ctxt));
+		boolean timed = NopMetricsListener.isEnabled(metrics);
+		long start = timed ? System.nanoTime() : 0L;
+		DeserializationScope scope = DeserializationScope.enter(null, ctxt);
+		try {
+			return wrappedDeserializer.deserializeKey(key, scope.context);
+		} finally {
+			scope.exit();
+			if (timed) {
+				metrics.deserialized(wrappedDeserializer.getClass(), System.nanoTime() - start);
+			}
+		}
 	}
 
 }
@@ -0,0 +1,394 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.wrapper;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.JsonParseException;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonProcessingException;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.ObjectCodec;
+import org.codehaus.jackson.node.ArrayNode;
+import org.codehaus.jackson.node.BaseJsonNode;
+import org.codehaus.jackson.node.ContainerNode;
+import org.codehaus.jackson.node.JsonNodeFactory;
+import org.codehaus.jackson.node.ObjectNode;
+import org.codehaus.jackson.node.TreeTraversingParser;
+import org.codehaus.jackson.type.JavaType;
+import org.codehaus.jackson.type.TypeReference;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Presents a jackson 2 codec (usually the {@link ObjectMapper} that created the parser) as jackson 1 codec. Values are
+ * read by the jackson 2 codec, so an {@link ObjectMapper} serves them from its root deserializer cache. Trees are built
+ * as jackson 1 trees directly from the tokens of the parser.
+ * 
+ * Parsers and generators wrapping jackson 2 instances ({@link JsonParser2To1Wrapper},
+ * {@link JsonGenerator2To1Wrapper}) are handed to the jackson 2 codec directly. Other jackson 1 parsers (for example
+ * from {@link #treeAsTokens(JsonNode)}) are copied into a jackson 2 {@link TokenBuffer} first, values for other jackson
+ * 1 generators are written to a buffer and copied from there.
+ */
+public class ObjectCodec2To1Wrapper extends ObjectCodec {
+
+	private final com.fasterxml.jackson.core.ObjectCodec wrappedCodec;
+
+	private final ExceptionTranslation exceptions;
+
+	/**
+	 * maximum number of types kept by the type caches of a codec
+	 */
+	private static final int MAX_CACHED_TYPES = 128;
+
+	/**
+	 * jackson 1 types translated for the wrapped codec, only accessed while holding the lock of the cache
+	 */
+	private final JavaTypeCache<JavaType> translatedTypes = new JavaTypeCache<JavaType>(MAX_CACHED_TYPES);
+
+	/**
+	 * types of jackson 1 type references resolved by the wrapped mapper, only accessed while holding the lock of the
+	 * cache
+	 */
+	private final JavaTypeCache<Type> resolvedTypes = new JavaTypeCache<Type>(MAX_CACHED_TYPES);
+
+	public ObjectCodec2To1Wrapper(com.fasterxml.jackson.core.ObjectCodec wrappedCodec) {
+		this(wrappedCodec, ExceptionTranslation.DEFAULT);
+	}
+
+	/**
+	 * creates a codec that translates exceptions like the parser or generator it is bridged from
+	 */
+	ObjectCodec2To1Wrapper(com.fasterxml.jackson.core.ObjectCodec wrappedCodec, ExceptionTranslation exceptions) {
+		this.wrappedCodec = wrappedCodec;
+		this.exceptions = exceptions;
+	}
+
+	/**
+	 * @return the wrappedCodec
+	 */
+	public com.fasterxml.jackson.core.ObjectCodec unwrap() {
+		return wrappedCodec;
+	}
+
+	ExceptionTranslation exceptionTranslation() {
+		return exceptions;
+	}
+
+	@Override
+	public <T> T readValue(JsonParser jp, Class<T> valueType) throws IOException, JsonProcessingException {
+		try {
+			return wrappedCodec.readValue(jackson2Parser(jp, false), valueType);
+		} catch (com.fasterxml.jackson.core.JsonParseException e) {
+			throw exceptions.wrapJsonParseException(e);
+		} catch (com.fasterxml.jackson.databind.JsonMappingException e) {
+			throw exceptions.wrapMappingException(e);
+		}
+	}
+
+	@Override
+	public <T> T readValue(JsonParser jp, TypeReference<?> valueTypeRef) throws IOException, JsonProcessingException {
+		try {
+			if (wrappedCodec instanceof ObjectMapper) {
+				ObjectMapper mapper = (ObjectMapper) wrappedCodec;
+				return mapper.readValue(jackson2Parser(jp, false), jackson2Type(mapper, valueTypeRef));
+			}
+			return wrappedCodec.readValue(jackson2Parser(jp, false),
+					JacksonTransformers.transformTypeReference(valueTypeRef));
+		} catch (com.fasterxml.jackson.core.JsonParseException e) {
+			throw exceptions.wrapJsonParseException(e);
+		} catch (com.fasterxml.jackson.databind.JsonMappingException e) {
+			throw exceptions.wrapMappingException(e);
+		}
+	}
+
+	@Override
+	public <T> T readValue(JsonParser jp, JavaType valueType) throws IOException, JsonProcessingException {
+		try {
+			return wrappedCodec.readValue(jackson2Parser(jp, false), jackson2Type(valueType));
+		} catch (com.fasterxml.jackson.core.JsonParseException e) {
+			throw exceptions.wrapJsonParseException(e);
+		} catch (com.fasterxml.jackson.databind.JsonMappingException e) {
+			throw exceptions.wrapMappingException(e);
+		}
+	}
+
+	@Override
+	public <T> Iterator<T> readValues(JsonParser jp, Class<T> valueType) throws IOException, JsonProcessingException {
+		try {
+			return wrappedCodec.readValues(jackson2Parser(jp, true), valueType);
+		} catch (com.fasterxml.jackson.core.JsonParseException e) {
+			throw exceptions.wrapJsonParseException(e);
+		} catch (com.fasterxml.jackson.databind.JsonMappingException e) {
+			throw exceptions.wrapMappingException(e);
+		}
+	}
+
+	@Override
+	public <T> Iterator<T> readValues(JsonParser jp, TypeReference<?> valueTypeRef) throws IOException,
+			JsonProcessingException {
+		try {
+			if (wrappedCodec instanceof ObjectMapper) {
+				ObjectMapper mapper = (ObjectMapper) wrappedCodec;
+				return mapper.readValues(jackson2Parser(jp, true), jackson2Type(mapper, valueTypeRef));
+			}
+			return wrappedCodec.readValues(jackson2Parser(jp, true),
+					JacksonTransformers.transformTypeReference(valueTypeRef));
+		} catch (com.fasterxml.jackson.core.JsonParseException e) {
+			throw exceptions.wrapJsonParseException(e);
+		} catch (com.fasterxml.jackson.databind.JsonMappingException e) {
+			throw exceptions.wrapMappingException(e);
+		}
+	}
+
+	@Override
+	public <T> Iterator<T> readValues(JsonParser jp, JavaType valueType) throws IOException, JsonProcessingException {
+		try {
+			return wrappedCodec.readValues(jackson2Parser(jp, true), jackson2Type(valueType));
+		} catch (com.fasterxml.jackson.core.JsonParseException e) {
+			throw exceptions.wrapJsonParseException(e);
+		} catch (com.fasterxml.jackson.databind.JsonMappingException e) {
+			throw exceptions.wrapMappingException(e);
+		}
+	}
+
+	/**
+	 * Reads the value at the current token (or the next one if there is no current token) as jackson 1 tree, like the
+	 * jackson 1 <code>ObjectMapper</code> does.
+	 * 
+	 * @return <code>null</code> at the end of input
+	 */
+	@Override
+	public JsonNode readTree(JsonParser jp) throws IOException, JsonProcessingException {
+		JsonToken t = jp.getCurrentToken();
+		if (t == null) {
+			t = jp.nextToken();
+			if (t == null) {
+				return null;
+			}
+		}
+		JsonNode tree = buildTree(jp, t);
+		jp.clearCurrentToken();
+		return tree;
+	}
+
+	/**
+	 * builds the tree without recursion, so deeply nested input does not exhaust the stack
+	 */
+	private static JsonNode buildTree(JsonParser jp, JsonToken t) throws IOException, JsonProcessingException {
+		JsonNodeFactory factory = JsonNodeFactory.instance;
+		// containers are attached to their parent when they are opened and filled afterwards
+		ArrayDeque<ContainerNode> parents = new ArrayDeque<ContainerNode>();
+		String fieldName = null;
+		if (t == JsonToken.FIELD_NAME) {
+			// called for the remaining fields of an object
+			parents.push(factory.objectNode());
+		}
+		for (;; t = jp.nextToken()) {
+			if (t == null) {
+				throw new JsonParseException("Unexpected end-of-input", jp.getCurrentLocation());
+			}
+			JsonNode node;
+			switch (t) {
+			case FIELD_NAME:
+				fieldName = jp.getCurrentName();
+				continue;
+			case START_OBJECT:
+			case START_ARRAY:
+				ContainerNode container = (t == JsonToken.START_OBJECT) ? factory.objectNode() : factory.arrayNode();
+				if (!parents.isEmpty()) {
+					attach(parents.peek(), fieldName, container);
+				}
+				parents.push(container);
+				continue;
+			case END_OBJECT:
+			case END_ARRAY:
+				ContainerNode completed = parents.pop();
+				if (parents.isEmpty()) {
+					return completed;
+				}
+				continue;
+			case VALUE_STRING:
+				node = factory.textNode(jp.getText());
+				break;
+			case VALUE_NUMBER_INT:
+				switch (jp.getNumberType()) {
+				case INT:
+					node = factory.numberNode(jp.getIntValue());
+					break;
+				case LONG:
+					node = factory.numberNode(jp.getLongValue());
+					break;
+				default:
+					node = factory.numberNode(jp.getBigIntegerValue());
+				}
+				break;
+			case VALUE_NUMBER_FLOAT:
+				if (jp.getNumberType() == JsonParser.NumberType.BIG_DECIMAL) {
+					node = factory.numberNode(jp.getDecimalValue());
+				} else {
+					node = factory.numberNode(jp.getDoubleValue());
+				}
+				break;
+			case VALUE_TRUE:
+				node = factory.booleanNode(true);
+				break;
+			case VALUE_FALSE:
+				node = factory.booleanNode(false);
+				break;
+			case VALUE_NULL:
+				node = factory.nullNode();
+				break;
+			case VALUE_EMBEDDED_OBJECT:
+				Object embedded = jp.getEmbeddedObject();
+				if (embedded == null) {
+					node = factory.nullNode();
+				} else if (embedded instanceof byte[]) {
+					node = factory.binaryNode((byte[]) embedded);
+				} else {
+					node = factory.POJONode(embedded);
+				}
+				break;
+			default:
+				throw new JsonParseException("Unexpected token " + t, jp.getCurrentLocation());
+			}
+			if (parents.isEmpty()) {
+				return node;
+			}
+			attach(parents.peek(), fieldName, node);
+		}
+	}
+
+	private static void attach(ContainerNode parent, String fieldName, JsonNode node) {
+		if (parent instanceof ObjectNode) {
+			((ObjectNode) parent).put(fieldName, node);
+		} else {
+			((ArrayNode) parent).add(node);
+		}
+	}
+
+	/**
+	 * values for other generators than {@link JsonGenerator2To1Wrapper}s are written to a jackson 2 token buffer first
+	 * and copied from there
+	 */
+	@Override
+	public void writeValue(JsonGenerator jgen, Object value) throws IOException, JsonProcessingException {
+		try {
+			if (jgen instanceof JsonGenerator2To1Wrapper) {
+				wrappedCodec.writeValue(((JsonGenerator2To1Wrapper) jgen).unwrap(), value);
+				return;
+			}
+			TokenBuffer buffer = new TokenBuffer(wrappedCodec);
+			wrappedCodec.writeValue(buffer, value);
+			JsonParser2To1Wrapper parser = new JsonParser2To1Wrapper(buffer.asParser());
+			parser.setStacklessExceptions(exceptions.isStackless());
+			parser.nextToken();
+			jgen.copyCurrentStructure(parser);
+		} catch (com.fasterxml.jackson.core.JsonGenerationException e) {
+			throw exceptions.wrapJsonGenerationException(e);
+		} catch (com.fasterxml.jackson.databind.JsonMappingException e) {
+			throw exceptions.wrapMappingException(e);
+		}
+	}
+
+	/**
+	 * wrapped jackson 2 generators stream the tree themselves, other generators are handed to the nodes
+	 */
+	@Override
+	public void writeTree(JsonGenerator jgen, JsonNode rootNode) throws IOException, JsonProcessingException {
+		if (jgen instanceof JsonGenerator2To1Wrapper) {
+			jgen.writeTree(rootNode);
+		} else {
+			((BaseJsonNode) rootNode).serialize(jgen, null);
+		}
+	}
+
+	@Override
+	public JsonNode createObjectNode() {
+		return JsonNodeFactory.instance.objectNode();
+	}
+
+	@Override
+	public JsonNode createArrayNode() {
+		return JsonNodeFactory.instance.arrayNode();
+	}
+
+	@Override
+	public JsonParser treeAsTokens(JsonNode n) {
+		return new TreeTraversingParser(n, this);
+	}
+
+	/**
+	 * streams the tree into a jackson 2 token buffer and reads the value from there
+	 */
+	@Override
+	public <T> T treeToValue(JsonNode n, Class<T> valueType) throws IOException, JsonProcessingException {
+		TokenBuffer buffer = new TokenBuffer(wrappedCodec);
+		JsonGenerator2To1Wrapper generator = new JsonGenerator2To1Wrapper(buffer);
+		generator.setStacklessExceptions(exceptions.isStackless());
+		writeTree(generator, n);
+		try {
+			return wrappedCodec.readValue(buffer.asParser(), valueType);
+		} catch (com.fasterxml.jackson.core.JsonParseException e) {
+			throw exceptions.wrapJsonParseException(e);
+		} catch (com.fasterxml.jackson.databind.JsonMappingException e) {
+			throw exceptions.wrapMappingException(e);
+		}
+	}
+
+	/**
+	 * translates the given type with the type factory of the wrapped codec. Translations are kept as long as this codec
+	 * is, bridges of parsers and generators are kept while the wrapped codec does not change.
+	 */
+	com.fasterxml.jackson.databind.JavaType jackson2Type(JavaType valueType) {
+		TypeFactory typeFactory = (wrappedCodec instanceof ObjectMapper) ? ((ObjectMapper) wrappedCodec)
+				.getTypeFactory() : TypeFactory.defaultInstance();
+		synchronized (translatedTypes) {
+			return JacksonTransformers.transformJavaType(valueType, typeFactory, translatedTypes);
+		}
+	}
+
+	/**
+	 * resolves the type referenced by the given jackson 1 reference with the type factory of the given mapper, which is
+	 * the wrapped codec. Resolved types are kept like translated ones, see {@link #jackson2Type(JavaType)}.
+	 */
+	com.fasterxml.jackson.databind.JavaType jackson2Type(ObjectMapper mapper, TypeReference<?> valueTypeRef) {
+		synchronized (resolvedTypes) {
+			return JacksonTransformers.transformTypeReference(valueTypeRef, mapper.getTypeFactory(), resolvedTypes);
+		}
+	}
+
+	/**
+	 * unwraps wrapped jackson 2 parsers, other parsers are copied into a jackson 2 token buffer like
+	 * {@link #treeToValue(JsonNode, Class)} does. The copied parser is positioned at the last token of the copied
+	 * value(s) afterwards.
+	 * 
+	 * @param all
+	 *            <code>true</code> to copy all remaining values, <code>false</code> to copy the value at the current
+	 *            token (or the next one if there is no current token)
+	 */
+	private com.fasterxml.jackson.core.JsonParser jackson2Parser(JsonParser jp, boolean all) throws IOException,
+			JsonProcessingException {
+		if (jp instanceof JsonParser2To1Wrapper) {
+			return ((JsonParser2To1Wrapper) jp).unwrap();
+		}
+		TokenBuffer buffer = new TokenBuffer(wrappedCodec);
+		JsonGenerator2To1Wrapper generator = new JsonGenerator2To1Wrapper(buffer);
+		generator.setStacklessExceptions(exceptions.isStackless());
+		if (jp.getCurrentToken() != null || jp.nextToken() != null) {
+			generator.copyCurrentStructure(jp);
+			while (all && jp.nextToken() != null) {
+				generator.copyCurrentStructure(jp);
+			}
+		}
+		return buffer.asParser();
+	}
+}
@@ -0,0 +1,47 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.wrapper;
+
+import org.codehaus.jackson.map.util.ArrayBuilders;
+import org.codehaus.jackson.map.util.ObjectBuffer;
+
+/**
+ * The buffers jackson 1 deserializers lease from their {@link org.codehaus.jackson.map.DeserializationContext}. Jackson
+ * 1 keeps them for the lifetime of a context, the wrappers share one instance per thread (see
+ * {@link DeserializationScope}) so the buffers survive from one deserializer call to the next.
+ * 
+ * Not thread safe.
+ */
+final class RecycledBuffers {
+
+	private ObjectBuffer objectBuffer;
+
+	private ArrayBuilders arrayBuilders;
+
+	ObjectBuffer leaseObjectBuffer() {
+		ObjectBuffer buf = objectBuffer;
+		if (buf == null) {
+			buf = new ObjectBuffer();
+		} else {
+			objectBuffer = null;
+		}
+		return buf;
+	}
+
+	void returnObjectBuffer(ObjectBuffer buf) {
+		/* Already have a reusable buffer? Let's retain bigger one
+		 * (or if equal, favor newer one, shorter life-cycle)
+		 */
+		if (objectBuffer == null || buf.initialCapacity() >= objectBuffer.initialCapacity()) {
+			objectBuffer = buf;
+		}
+	}
+
+	ArrayBuilders getArrayBuilders() {
+		if (arrayBuilders == null) {
+			arrayBuilders = new ArrayBuilders();
+		}
+		return arrayBuilders;
+	}
+}
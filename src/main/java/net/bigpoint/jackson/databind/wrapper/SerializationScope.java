@@ -0,0 +1,65 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.wrapper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * Thread confined pair of 2-to-1 wrappers used by {@link JsonSerializer1To2Wrapper}. The wrappers are reset for every
+ * top level call, so the steady state serialization path does not allocate. Nested calls for the same generator and
+ * provider share the wrappers of the enclosing call, nested calls for other instances get a fresh scope.
+ * 
+ * The wrappers are only valid while the call is running, jackson 1 serializers must not keep references to them.
+ */
+final class SerializationScope {
+
+	private static final ThreadLocal<SerializationScope> CURRENT = new ThreadLocal<SerializationScope>() {
+		@Override
+		protected SerializationScope initialValue() {
+			return new SerializationScope();
+		}
+	};
+
+	final JsonGenerator2To1Wrapper generator = new JsonGenerator2To1Wrapper(null);
+
+	final SerializerProvider2To1Wrapper provider = new SerializerProvider2To1Wrapper(null);
+
+	private int depth;
+
+	private SerializationScope() {
+	}
+
+	/**
+	 * returns a scope whose wrappers wrap the given instances and translate exceptions stackless if requested. Every
+	 * call has to be followed by {@link #exit()}.
+	 */
+	static SerializationScope enter(JsonGenerator jgen, SerializerProvider prov, boolean stacklessExceptions) {
+		SerializationScope scope = CURRENT.get();
+		if (scope.depth > 0
+				&& (scope.generator.unwrap() != jgen || scope.provider.unwrap() != prov || scope.generator
+						.isStacklessExceptions() != stacklessExceptions)) {
+			// the cached wrappers are still in use by an enclosing call
+			scope = new SerializationScope();
+		}
+		if (scope.depth++ == 0) {
+			scope.generator.reset(jgen);
+			scope.provider.reset(prov);
+			scope.generator.setStacklessExceptions(stacklessExceptions);
+			scope.provider.setStacklessExceptions(stacklessExceptions);
+		}
+		return scope;
+	}
+
+	/**
+	 * ends a call started by {@link #enter(JsonGenerator, SerializerProvider, boolean)}. The wrapped instances are
+	 * released once the outermost call ends, so a thread never keeps a generator (and its output) alive.
+	 */
+	void exit() {
+		if (--depth == 0) {
+			generator.reset(null);
+			provider.reset(null);
+		}
+	}
+}
@@ -6,11 +6,11 @@ package net.bigpoint.jackson.databind.wrapper;
 import static net.bigpoint.jackson.databind.wrapper.JacksonTransformers.transformBeanProperty;
 import static net.bigpoint.jackson.databind.wrapper.JacksonTransformers.transformJavaType;
 import static net.bigpoint.jackson.databind.wrapper.JacksonTransformers.unwrapGenerator;
-import static net.bigpoint.jackson.databind.wrapper.JacksonTransformers.wrapMappingException;
-import static net.bigpoint.jackson.databind.wrapper.JacksonTransformers.wrapProcessingException;
 
 import java.io.IOException;
 import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 import org.codehaus.jackson.JsonGenerationException;
 import org.codehaus.jackson.JsonGenerator;
@@ -37,6 +37,29 @@ public class SerializerProvider2To1Wrapper extends SerializerProvider {
 
 	private com.fasterxml.jackson.databind.SerializerProvider wrappedProvider;
 
+	private ExceptionTranslation exceptions = ExceptionTranslation.DEFAULT;
+
+	/**
+	 * the wrapper map is replaced once it holds this many wrappers, which bounds the table that is cleared per call
+	 */
+	private static final int MAX_CACHED_WRAPPERS = 64;
+
+	/**
+	 * maximum number of translated jackson 1 types kept per wrapped provider
+	 */
+	private static final int MAX_CACHED_TYPES = 64;
+
+	/**
+	 * wrappers handed out for the serializers of the wrapped provider, jackson 2 serializers are compared by identity
+	 */
+	private Map<com.fasterxml.jackson.databind.JsonSerializer<Object>, JsonSerializer<Object>> wrappers =
+			new IdentityHashMap<com.fasterxml.jackson.databind.JsonSerializer<Object>, JsonSerializer<Object>>();
+
+	/**
+	 * jackson 1 types translated for the wrapped provider, emptied together with the wrapper map
+	 */
+	private final JavaTypeCache<JavaType> types = new JavaTypeCache<JavaType>(MAX_CACHED_TYPES);
+
 	/**
 	 * @param config
 	 */
@@ -52,14 +75,61 @@ public class SerializerProvider2To1Wrapper extends SerializerProvider {
 		return wrappedProvider;
 	}
 
+	/**
+	 * enables or disables stackless exception translation, see
+	 * {@link JsonParser2To1Wrapper#setStacklessExceptions(boolean)}
+	 */
+	void setStacklessExceptions(boolean stacklessExceptions) {
+		this.exceptions = ExceptionTranslation.of(stacklessExceptions);
+	}
+
+	/**
+	 * makes this wrapper wrap another provider, used to reuse wrapper instances.
+	 */
+	void reset(com.fasterxml.jackson.databind.SerializerProvider wrappedProvider) {
+		this.wrappedProvider = wrappedProvider;
+		if (!wrappers.isEmpty()) {
+			wrappers.clear();
+		}
+		types.clear();
+	}
+
+	/**
+	 * translates the given type for the wrapped provider, translations are reused as long as the wrapped provider does
+	 * not change
+	 */
+	private com.fasterxml.jackson.databind.JavaType translate(JavaType type) {
+		return transformJavaType(type, wrappedProvider.getConfig().getTypeFactory(), types);
+	}
+
+	/**
+	 * returns the wrapper for the given serializer, wrappers are reused as long as the wrapped provider does not change.
+	 * Serializers that wrap jackson 1 serializers are unwrapped.
+	 */
+	private JsonSerializer<Object> wrap(com.fasterxml.jackson.databind.JsonSerializer<Object> serializer) {
+		if (serializer == null) {
+			return null;
+		}
+		JsonSerializer<Object> wrapper = wrappers.get(serializer);
+		if (wrapper == null) {
+			wrapper = JsonSerializer2To1Wrapper.wrap(serializer);
+			if (wrappers.size() >= MAX_CACHED_WRAPPERS) {
+				// a new map instead of clear(), the table of an IdentityHashMap never shrinks
+				wrappers = new IdentityHashMap<com.fasterxml.jackson.databind.JsonSerializer<Object>,
+						JsonSerializer<Object>>();
+			}
+			wrappers.put(serializer, wrapper);
+		}
+		return wrapper;
+	}
+
 	@Override
 	public JsonSerializer<Object> findValueSerializer(Class<?> runtimeType, BeanProperty property)
 			throws JsonMappingException {
 		try {
-			return new JsonSerializer2To1Wrapper<Object>(wrappedProvider.findValueSerializer(runtimeType,
-					transformBeanProperty(property)));
+			return wrap(wrappedProvider.findValueSerializer(runtimeType, transformBeanProperty(property)));
 		} catch (com.fasterxml.jackson.databind.JsonMappingException e) {
-			throw wrapMappingException(e);
+			throw exceptions.wrapMappingException(e);
 		}
 	}
 
@@ -67,10 +137,10 @@ public class SerializerProvider2To1Wrapper extends SerializerProvider {
 	public JsonSerializer<Object> findValueSerializer(JavaType serializationType, BeanProperty property)
 			throws JsonMappingException {
 		try {
-			return new JsonSerializer2To1Wrapper<Object>(wrappedProvider.findValueSerializer(
-					transformJavaType(serializationType, wrappedProvider), transformBeanProperty(property)));
+			return wrap(wrappedProvider.findValueSerializer(
+					translate(serializationType), transformBeanProperty(property)));
 		} catch (com.fasterxml.jackson.databind.JsonMappingException e) {
-			throw wrapMappingException(e);
+			throw exceptions.wrapMappingException(e);
 		}
 	}
 
@@ -78,10 +148,9 @@ public class SerializerProvider2To1Wrapper extends SerializerProvider {
 	public JsonSerializer<Object> findTypedValueSerializer(Class<?> valueType, boolean cache, BeanProperty property)
 			throws JsonMappingException {
 		try {
-			return new JsonSerializer2To1Wrapper<Object>(wrappedProvider.findTypedValueSerializer(valueType, cache,
-					transformBeanProperty(property)));
+			return wrap(wrappedProvider.findTypedValueSerializer(valueType, cache, transformBeanProperty(property)));
 		} catch (com.fasterxml.jackson.databind.JsonMappingException e) {
-			throw wrapMappingException(e);
+			throw exceptions.wrapMappingException(e);
 		}
 	}
 
@@ -89,36 +158,36 @@ public class SerializerProvider2To1Wrapper extends SerializerProvider {
 	public JsonSerializer<Object> findTypedValueSerializer(JavaType valueType, boolean cache, BeanProperty property)
 			throws JsonMappingException {
 		try {
-			return new JsonSerializer2To1Wrapper<Object>(wrappedProvider.findTypedValueSerializer(
-					transformJavaType(valueType, wrappedProvider), cache, transformBeanProperty(property)));
+			return wrap(wrappedProvider.findTypedValueSerializer(
+					translate(valueType), cache, transformBeanProperty(property)));
 		} catch (com.fasterxml.jackson.databind.JsonMappingException e) {
-			throw wrapMappingException(e);
+			throw exceptions.wrapMappingException(e);
 		}
 	}
 
 	@Override
 	public JsonSerializer<Object> findKeySerializer(JavaType keyType, BeanProperty property) throws JsonMappingException {
 		try {
-			return new JsonSerializer2To1Wrapper<Object>(wrappedProvider.findKeySerializer(
-					transformJavaType(keyType, wrappedProvider), transformBeanProperty(property)));
+			return wrap(wrappedProvider.findKeySerializer(
+					translate(keyType), transformBeanProperty(property)));
 		} catch (com.fasterxml.jackson.databind.JsonMappingException e) {
-			throw wrapMappingException(e);
+			throw exceptions.wrapMappingException(e);
 		}
 	}
 
 	@Override
 	public JsonSerializer<Object> getNullKeySerializer() {
-		return new JsonSerializer2To1Wrapper<Object>(wrappedProvider.getDefaultNullKeySerializer());
+		return wrap(wrappedProvider.getDefaultNullKeySerializer());
 	}
 
 	@Override
 	public JsonSerializer<Object> getNullValueSerializer() {
-		return new JsonSerializer2To1Wrapper<Object>(wrappedProvider.getDefaultNullValueSerializer());
+		return wrap(wrappedProvider.getDefaultNullValueSerializer());
 	}
 
 	@Override
 	public JsonSerializer<Object> getUnknownTypeSerializer(Class<?> unknownType) {
-		return new JsonSerializer2To1Wrapper<Object>(wrappedProvider.getUnknownTypeSerializer(unknownType));
+		return wrap(wrappedProvider.getUnknownTypeSerializer(unknownType));
 	}
 
 	@Override
@@ -126,7 +195,7 @@ public class SerializerProvider2To1Wrapper extends SerializerProvider {
 		try {
 			wrappedProvider.defaultSerializeDateValue(timestamp, unwrapGenerator(jgen));
 		} catch (com.fasterxml.jackson.databind.JsonMappingException e) {
-			throw wrapProcessingException(e);
+			throw exceptions.wrapProcessingException(e);
 		}
 
 	}
@@ -136,7 +205,7 @@ public class SerializerProvider2To1Wrapper extends SerializerProvider {
 		try {
 			wrappedProvider.defaultSerializeDateValue(date, unwrapGenerator(jgen));
 		} catch (com.fasterxml.jackson.databind.JsonMappingException e) {
-			throw wrapProcessingException(e);
+			throw exceptions.wrapProcessingException(e);
 		}
 
 	}
@@ -146,7 +215,7 @@ public class SerializerProvider2To1Wrapper extends SerializerProvider {
 		try {
 			wrappedProvider.defaultSerializeDateKey(timestamp, unwrapGenerator(jgen));
 		} catch (com.fasterxml.jackson.databind.JsonMappingException e) {
-			throw wrapProcessingException(e);
+			throw exceptions.wrapProcessingException(e);
 		}
 
 	}
@@ -156,7 +225,7 @@ public class SerializerProvider2To1Wrapper extends SerializerProvider {
 		try {
 			wrappedProvider.defaultSerializeDateKey(date, unwrapGenerator(jgen));
 		} catch (com.fasterxml.jackson.databind.JsonMappingException e) {
-			throw wrapProcessingException(e);
+			throw exceptions.wrapProcessingException(e);
 		}
 
 	}
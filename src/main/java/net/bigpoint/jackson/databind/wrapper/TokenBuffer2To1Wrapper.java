@@ -0,0 +1,99 @@
+/**
+ * 
+ */
+package net.bigpoint.jackson.databind.wrapper;
+
+import java.io.IOException;
+
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonProcessingException;
+import org.codehaus.jackson.ObjectCodec;
+
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+/**
+ * Presents a jackson 2 {@link TokenBuffer} to jackson 1 code. Jackson 1 deserializers that have to look ahead (for
+ * example to find a type property) can buffer the current structure of a wrapped jackson 2 parser once and replay it as
+ * often as needed. The tokens are copied by jackson 2 directly from the wrapped parser and replayed by
+ * {@link JsonParser2To1Wrapper}s over the buffer, so the input is neither parsed again nor copied through a jackson 1
+ * <code>TokenBuffer</code>. Other jackson 1 parsers are buffered token by token.
+ */
+public class TokenBuffer2To1Wrapper {
+
+	private final TokenBuffer wrappedBuffer;
+
+	public TokenBuffer2To1Wrapper(TokenBuffer wrappedBuffer) {
+		this.wrappedBuffer = wrappedBuffer;
+	}
+
+	/**
+	 * buffers the structure starting at the current token of the given parser, like
+	 * <code>TokenBuffer.copyCurrentStructure(JsonParser)</code> of jackson 1. The parser is positioned at the last
+	 * token of the structure afterwards.
+	 * 
+	 * @param jp
+	 *            a {@link JsonParser2To1Wrapper} is copied by jackson 2 directly, other parsers are copied token by
+	 *            token through {@link #asGenerator()}
+	 */
+	public static TokenBuffer2To1Wrapper bufferCurrentStructure(JsonParser jp) throws IOException,
+			JsonProcessingException {
+		if (!(jp instanceof JsonParser2To1Wrapper)) {
+			ObjectCodec codec = jp.getCodec();
+			TokenBuffer2To1Wrapper buffer = new TokenBuffer2To1Wrapper(new TokenBuffer(
+					(codec instanceof ObjectCodec2To1Wrapper) ? ((ObjectCodec2To1Wrapper) codec).unwrap() : null));
+			buffer.asGenerator().copyCurrentStructure(jp);
+			return buffer;
+		}
+		JsonParser2To1Wrapper wrapper = (JsonParser2To1Wrapper) jp;
+		com.fasterxml.jackson.core.JsonParser parser = wrapper.unwrap();
+		TokenBuffer buffer = new TokenBuffer(parser.getCodec());
+		try {
+			buffer.copyCurrentStructure(parser);
+		} catch (com.fasterxml.jackson.core.JsonParseException e) {
+			throw wrapper.exceptionTranslation().wrapJsonParseException(e);
+		}
+		return new TokenBuffer2To1Wrapper(buffer);
+	}
+
+	/**
+	 * @return the wrappedBuffer
+	 */
+	public TokenBuffer unwrap() {
+		return wrappedBuffer;
+	}
+
+	/**
+	 * @return a new parser over the buffered tokens, using the codec of the buffer. Every parser replays all tokens.
+	 */
+	public JsonParser2To1Wrapper asParser() {
+		return new JsonParser2To1Wrapper(wrappedBuffer.asParser());
+	}
+
+	/**
+	 * like {@link #asParser()}, but the returned parser reports the token location of the given parser and uses its
+	 * codec, location tracking and exception translation settings.
+	 */
+	public JsonParser2To1Wrapper asParser(JsonParser src) {
+		JsonParser2To1Wrapper parser;
+		if (src instanceof JsonParser2To1Wrapper) {
+			JsonParser2To1Wrapper wrapper = (JsonParser2To1Wrapper) src;
+			parser = new JsonParser2To1Wrapper(wrappedBuffer.asParser(wrapper.unwrap()));
+			parser.setLocationTracking(wrapper.isLocationTracking());
+			parser.setStacklessExceptions(wrapper.isStacklessExceptions());
+		} else {
+			parser = asParser();
+		}
+		ObjectCodec codec = src.getCodec();
+		if (codec != null && !(codec instanceof ObjectCodec2To1Wrapper)) {
+			parser.setCodec(codec);
+		}
+		return parser;
+	}
+
+	/**
+	 * @return a generator appending to the buffer
+	 */
+	public JsonGenerator2To1Wrapper asGenerator() {
+		return new JsonGenerator2To1Wrapper(wrappedBuffer);
+	}
+}
@@ -2,7 +2,11 @@ package net.bigpoint.jackson.databind.introspect;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 import javax.xml.namespace.QName;
@@ -12,10 +16,15 @@ import net.bigpoint.jackson.databind.BaseMapTest;
 import org.codehaus.jackson.JsonGenerator;
 import org.codehaus.jackson.JsonParser;
 import org.codehaus.jackson.JsonProcessingException;
+import org.codehaus.jackson.annotate.JsonAutoDetect;
+import org.codehaus.jackson.annotate.JsonAutoDetect.Visibility;
 import org.codehaus.jackson.annotate.JsonIgnore;
+import org.codehaus.jackson.annotate.JsonMethod;
 import org.codehaus.jackson.annotate.JsonIgnoreType;
 import org.codehaus.jackson.annotate.JsonProperty;
+import org.codehaus.jackson.annotate.JsonSubTypes;
 import org.codehaus.jackson.annotate.JsonTypeInfo;
+import org.codehaus.jackson.annotate.JsonTypeName;
 import org.codehaus.jackson.map.DeserializationContext;
 import org.codehaus.jackson.map.JsonSerializer;
 import org.codehaus.jackson.map.SerializerProvider;
@@ -33,6 +42,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.introspect.AnnotatedClass;
 import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMethod;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
 import com.fasterxml.jackson.databind.jsontype.TypeResolverBuilder;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 
@@ -150,6 +161,30 @@ public class TestJacksonLegacyAnnotationIntrospector extends BaseMapTest {
 		}		
 	}
 
+	@JsonAutoDetect(value = JsonMethod.FIELD, fieldVisibility = Visibility.ANY)
+	static class FieldsOnly {
+		private String field = "value";
+
+		public String getIgnored() {
+			return "ignored";
+		}
+	}
+
+	@JsonSubTypes({ @JsonSubTypes.Type(value = Dog.class, name = "dog"), @JsonSubTypes.Type(Cat.class) })
+	static class Animal {
+	}
+
+	@JsonSubTypes({ @JsonSubTypes.Type(value = Puppy.class, name = "puppy") })
+	static class Dog extends Animal {
+	}
+
+	static class Puppy extends Dog {
+	}
+
+	@JsonTypeName("cat")
+	static class Cat extends Animal {
+	}
+
 	// Test to ensure we can override enum settings
 	static class LcEnumIntrospector extends JacksonLegacyIntrospector {
 		private static final long serialVersionUID = 1L;
@@ -246,4 +281,108 @@ public class TestJacksonLegacyAnnotationIntrospector extends BaseMapTest {
 		EnumExample result = mapper.readValue(quote("value1"), EnumExample.class);
 		Assert.assertEquals(EnumExample.VALUE1, result);
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testSerializerInstanceCaching() throws Exception {
+		JacksonLegacyIntrospector ai = new JacksonLegacyIntrospector();
+		AnnotatedClass ac = AnnotatedClass.construct(JacksonExample.class, ai, null);
+		AnnotatedMethod getter = null;
+		for (AnnotatedMethod am : ac.memberMethods()) {
+			if ("getQname".equals(am.getName())) {
+				getter = am;
+			}
+		}
+		Assert.assertNotNull(getter);
+		Assert.assertSame(ai.findSerializer(getter), ai.findSerializer(getter));
+
+		ai.registerStatefulHandler(QNameSerializer.class);
+		Assert.assertNotSame(ai.findSerializer(getter), ai.findSerializer(getter));
+	}
+
+	@Test
+	public void testDeserializerInstanceRegistry() throws Exception {
+		LRUHandlerInstanceRegistry registry = new LRUHandlerInstanceRegistry(1);
+		JacksonLegacyIntrospector ai = new JacksonLegacyIntrospector(registry);
+		AnnotatedClass ac = AnnotatedClass.construct(JacksonExample.class, ai, null);
+		AnnotatedMethod setter = null;
+		for (AnnotatedMethod am : ac.memberMethods()) {
+			if ("setQname".equals(am.getName())) {
+				setter = am;
+			}
+		}
+		Assert.assertNotNull(setter);
+		Object deserializer = ai.findDeserializer(setter);
+		Assert.assertSame(deserializer, ai.findDeserializer(setter));
+		Assert.assertEquals(1, registry.size());
+
+		// bounded: registering another class evicts the least recently used one
+		registry.put(String.class, "other");
+		Assert.assertEquals(1, registry.size());
+		Assert.assertNull(registry.get(QNameDeserializer.class));
+		Assert.assertNotSame(deserializer, ai.findDeserializer(setter));
+	}
+
+	/**
+	 * handler class loaded again by a throwaway class loader
+	 */
+	public static class Throwaway {
+	}
+
+	@Test
+	public void testInstanceRegistryReleasesClassLoader() throws Exception {
+		LRUHandlerInstanceRegistry registry = new LRUHandlerInstanceRegistry();
+		URLClassLoader loader = new URLClassLoader(new URL[] { Throwaway.class.getProtectionDomain().getCodeSource()
+				.getLocation() }, null);
+		Class<?> handlerClass = loader.loadClass(Throwaway.class.getName());
+		Assert.assertNotSame(Throwaway.class, handlerClass);
+		Object instance = handlerClass.newInstance();
+		registry.put(handlerClass, instance);
+		registry.put(Throwaway.class, new Throwaway());
+		Assert.assertSame(instance, registry.get(handlerClass));
+
+		WeakReference<ClassLoader> loaderRef = new WeakReference<ClassLoader>(loader);
+		loader = null;
+		handlerClass = null;
+		instance = null;
+		for (int i = 0; i < 100 && loaderRef.get() != null; ++i) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		Assert.assertNull(loaderRef.get());
+		Assert.assertEquals(1, registry.size());
+		// instances of classes that can not be unloaded first are held strongly
+		Assert.assertNotNull(registry.get(Throwaway.class));
+	}
+
+	@Test
+	public void testAutoDetect() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.setAnnotationIntrospector(new JacksonLegacyIntrospector());
+		Assert.assertEquals("{\"field\":\"value\"}", mapper.writeValueAsString(new FieldsOnly()));
+
+		// the adapted annotation is reused for every introspection of the class
+		long hits = JacksonLegacyIntrospector.getAutoDetectViewCache().getHitCount();
+		JacksonLegacyIntrospector ai = new JacksonLegacyIntrospector();
+		AnnotatedClass ac = AnnotatedClass.construct(FieldsOnly.class, ai, null);
+		ai.findAutoDetectVisibility(ac, mapper.getSerializationConfig().getDefaultVisibilityChecker());
+		Assert.assertEquals(hits + 1, JacksonLegacyIntrospector.getAutoDetectViewCache().getHitCount());
+	}
+
+	@Test
+	public void testSubtypes() throws Exception {
+		JacksonLegacyIntrospector ai = new JacksonLegacyIntrospector();
+		List<NamedType> subtypes = ai.findSubtypes(AnnotatedClass.construct(Animal.class, ai, null));
+		Assert.assertEquals(Arrays.asList(new NamedType(Dog.class, "dog"), new NamedType(Cat.class)), subtypes);
+		// shared by all lookups of the annotation
+		Assert.assertSame(subtypes, ai.findSubtypes(AnnotatedClass.construct(Animal.class, ai, null)));
+
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.setAnnotationIntrospector(ai);
+		List<NamedType> registered = ai.registerSubtypes(mapper.getSubtypeResolver(), Animal.class);
+		Assert.assertEquals(3, registered.size());
+		Assert.assertTrue(registered.contains(new NamedType(Puppy.class)));
+		Collection<NamedType> resolved = mapper.getSubtypeResolver().collectAndResolveSubtypes(
+				AnnotatedClass.construct(Dog.class, ai, null), mapper.getSerializationConfig(), ai);
+		Assert.assertTrue(resolved.contains(new NamedType(Puppy.class, "puppy")));
+	}
+}
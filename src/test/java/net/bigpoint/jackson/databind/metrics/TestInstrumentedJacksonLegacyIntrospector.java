@@ -0,0 +1,118 @@
+package net.bigpoint.jackson.databind.metrics;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.bigpoint.jackson.databind.introspect.JacksonLegacyIntrospector;
+import net.bigpoint.jackson.databind.introspect.LRUHandlerInstanceRegistry;
+
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.map.DeserializationContext;
+import org.codehaus.jackson.map.JsonDeserializer;
+import org.codehaus.jackson.map.JsonSerializer;
+import org.codehaus.jackson.map.SerializerProvider;
+import org.codehaus.jackson.map.annotate.JsonDeserialize;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class TestInstrumentedJacksonLegacyIntrospector {
+
+	public static class Bean {
+		@JsonSerialize(using = UpperCaseSerializer.class)
+		@JsonDeserialize(using = LowerCaseDeserializer.class)
+		public String value;
+	}
+
+	public static class UpperCaseSerializer extends JsonSerializer<String> {
+		@Override
+		public void serialize(String value, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+			jgen.writeString(value.toUpperCase());
+		}
+	}
+
+	public static class LowerCaseDeserializer extends JsonDeserializer<String> {
+		@Override
+		public String deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
+			return jp.getText().toLowerCase();
+		}
+	}
+
+	static class CountingListener implements MetricsListener {
+		final Map<Object, Integer> counts = new HashMap<Object, Integer>();
+
+		private synchronized void count(Object key, long nanos) {
+			Assert.assertTrue(nanos >= 0);
+			Integer count = counts.get(key);
+			counts.put(key, (count == null) ? 1 : count + 1);
+		}
+
+		@Override
+		public void introspected(String method, long nanos) {
+			count(method, nanos);
+		}
+
+		@Override
+		public void handlerCreated(Class<?> handlerClass, long nanos) {
+			count("created " + handlerClass.getSimpleName(), nanos);
+		}
+
+		@Override
+		public void serialized(Class<?> serializerClass, long nanos) {
+			count(serializerClass, nanos);
+		}
+
+		@Override
+		public void deserialized(Class<?> deserializerClass, long nanos) {
+			count(deserializerClass, nanos);
+		}
+	}
+
+	@Test
+	public void testEventsAreReported() throws Exception {
+		CountingListener listener = new CountingListener();
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.setAnnotationIntrospector(new InstrumentedJacksonLegacyIntrospector(listener));
+
+		Bean bean = new Bean();
+		bean.value = "Value";
+		String json = mapper.writeValueAsString(bean);
+		Assert.assertEquals("{\"value\":\"VALUE\"}", json);
+		Assert.assertEquals("value", mapper.readValue(json, Bean.class).value);
+
+		Assert.assertTrue(listener.counts.containsKey("findSerializer"));
+		Assert.assertEquals(Integer.valueOf(1), listener.counts.get("created UpperCaseSerializer"));
+		Assert.assertEquals(Integer.valueOf(1), listener.counts.get("created LowerCaseDeserializer"));
+		Assert.assertEquals(Integer.valueOf(1), listener.counts.get(UpperCaseSerializer.class));
+		Assert.assertEquals(Integer.valueOf(1), listener.counts.get(LowerCaseDeserializer.class));
+	}
+
+	@Test
+	public void testSharedRegistryKeepsListenersApart() throws Exception {
+		LRUHandlerInstanceRegistry registry = new LRUHandlerInstanceRegistry();
+		CountingListener first = new CountingListener();
+		CountingListener second = new CountingListener();
+		JacksonLegacyIntrospector firstIntrospector = new JacksonLegacyIntrospector(registry);
+		firstIntrospector.setMetricsListener(first);
+		JacksonLegacyIntrospector secondIntrospector = new JacksonLegacyIntrospector(registry);
+		secondIntrospector.setMetricsListener(second);
+		ObjectMapper firstMapper = new ObjectMapper();
+		firstMapper.setAnnotationIntrospector(firstIntrospector);
+		ObjectMapper secondMapper = new ObjectMapper();
+		secondMapper.setAnnotationIntrospector(secondIntrospector);
+
+		Assert.assertEquals("value", firstMapper.readValue("{\"value\":\"Value\"}", Bean.class).value);
+		Assert.assertEquals("value", secondMapper.readValue("{\"value\":\"Value\"}", Bean.class).value);
+		// each mapper reports to the listener of its own introspector
+		Assert.assertEquals(Integer.valueOf(1), first.counts.get(LowerCaseDeserializer.class));
+		Assert.assertEquals(Integer.valueOf(1), second.counts.get(LowerCaseDeserializer.class));
+
+		// changing the listener of one introspector leaves the handlers of the other one registered
+		firstIntrospector.setMetricsListener(new CountingListener());
+		Assert.assertEquals(1, registry.size());
+	}
+}
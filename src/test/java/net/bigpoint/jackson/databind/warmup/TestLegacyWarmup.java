@@ -0,0 +1,82 @@
+package net.bigpoint.jackson.databind.warmup;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import net.bigpoint.jackson.databind.introspect.JacksonLegacyIntrospector;
+
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.annotate.JsonProperty;
+import org.codehaus.jackson.map.JsonSerializer;
+import org.codehaus.jackson.map.SerializerProvider;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+
+public class TestLegacyWarmup {
+
+	public static class Annotated {
+		@JsonProperty("renamed")
+		public String value;
+	}
+
+	public static class Plain {
+		public String value;
+	}
+
+	public static class BrokenSerializer extends JsonSerializer<Object> {
+		public BrokenSerializer(String noDefaultConstructor) {
+		}
+
+		@Override
+		public void serialize(Object value, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+		}
+	}
+
+	@JsonSerialize(using = BrokenSerializer.class)
+	public static class Broken {
+	}
+
+	@Test
+	public void testWarmUp() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.setAnnotationIntrospector(new JacksonLegacyIntrospector());
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<Class<?>> types = Arrays.<Class<?>> asList(Annotated.class, Plain.class, Broken.class);
+			WarmupReport report = new LegacyWarmup(mapper, executor).warmUp(types);
+
+			Assert.assertEquals(3, report.getTimings().size());
+			Assert.assertFalse(report.isSuccessful());
+			Assert.assertEquals(1, report.getFailures().size());
+			Assert.assertTrue(report.getFailures().containsKey(Broken.class.getName()));
+			Assert.assertTrue(((DefaultSerializerProvider) mapper.getSerializerProvider()).cachedSerializersCount() >= 2);
+			Assert.assertFalse(executor.isShutdown());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testWarmUpPackage() {
+		ClassLoader loader = getClass().getClassLoader();
+		List<Class<?>> found = LegacyWarmup.findLegacyAnnotatedClasses(getClass().getPackage().getName(), loader);
+		Assert.assertTrue(found.contains(Annotated.class));
+		Assert.assertTrue(found.contains(Broken.class));
+		Assert.assertFalse(found.contains(Plain.class));
+		Assert.assertFalse(found.contains(TestLegacyWarmup.class));
+
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.setAnnotationIntrospector(new JacksonLegacyIntrospector());
+		WarmupReport report = new LegacyWarmup(mapper).warmUpPackage(getClass().getPackage().getName(), loader);
+		Assert.assertTrue(report.getTimings().containsKey(Annotated.class.getName()));
+		Assert.assertFalse(report.getTimings().containsKey(Plain.class.getName()));
+		Assert.assertEquals(Arrays.asList(Broken.class.getName()), Arrays.asList(report.getFailures().keySet().toArray()));
+	}
+}
@@ -0,0 +1,95 @@
+package net.bigpoint.jackson.databind.wrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+import org.codehaus.jackson.annotate.JsonSubTypes;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestAnnotationWrappingProxy {
+
+	@JsonIgnoreProperties(value = { "a", "b" }, ignoreUnknown = true)
+	@com.fasterxml.jackson.annotation.JsonIgnoreProperties(value = { "a", "b" }, ignoreUnknown = true)
+	@JsonSubTypes({ @JsonSubTypes.Type(value = String.class, name = "string"), @JsonSubTypes.Type(Integer.class) })
+	@com.fasterxml.jackson.annotation.JsonSubTypes({
+			@com.fasterxml.jackson.annotation.JsonSubTypes.Type(value = String.class, name = "string"),
+			@com.fasterxml.jackson.annotation.JsonSubTypes.Type(Integer.class) })
+	static class Annotated {
+	}
+
+	@Test
+	public void testProxyMatchesJackson2Annotation() throws Exception {
+		com.fasterxml.jackson.annotation.JsonIgnoreProperties expected = Annotated.class
+				.getAnnotation(com.fasterxml.jackson.annotation.JsonIgnoreProperties.class);
+		com.fasterxml.jackson.annotation.JsonIgnoreProperties proxy = AnnotationWrappingProxy.proxy(
+				com.fasterxml.jackson.annotation.JsonIgnoreProperties.class,
+				Annotated.class.getAnnotation(JsonIgnoreProperties.class));
+
+		Assert.assertArrayEquals(expected.value(), proxy.value());
+		Assert.assertTrue(proxy.ignoreUnknown());
+		Assert.assertSame(com.fasterxml.jackson.annotation.JsonIgnoreProperties.class, proxy.annotationType());
+		Assert.assertEquals(proxy, expected);
+		Assert.assertEquals(expected, proxy);
+		Assert.assertEquals(expected.hashCode(), proxy.hashCode());
+
+		// returned arrays are copies
+		proxy.value()[0] = "changed";
+		Assert.assertEquals("a", proxy.value()[0]);
+	}
+
+	@Test
+	public void testNestedAnnotations() throws Exception {
+		com.fasterxml.jackson.annotation.JsonSubTypes expected = Annotated.class
+				.getAnnotation(com.fasterxml.jackson.annotation.JsonSubTypes.class);
+		com.fasterxml.jackson.annotation.JsonSubTypes proxy = AnnotationWrappingProxy.proxy(
+				com.fasterxml.jackson.annotation.JsonSubTypes.class, Annotated.class.getAnnotation(JsonSubTypes.class));
+
+		com.fasterxml.jackson.annotation.JsonSubTypes.Type[] types = proxy.value();
+		Assert.assertEquals(2, types.length);
+		Assert.assertSame(String.class, types[0].value());
+		Assert.assertEquals("string", types[0].name());
+		Assert.assertSame(Integer.class, types[1].value());
+		Assert.assertEquals("", types[1].name());
+		Assert.assertEquals(expected, proxy);
+		Assert.assertEquals(proxy, expected);
+		Assert.assertEquals(expected.hashCode(), proxy.hashCode());
+		Assert.assertEquals(expected.value()[0], types[0]);
+	}
+
+	@Test
+	public void testViewCacheFromManyThreads() throws Exception {
+		final AnnotationViewCache<com.fasterxml.jackson.annotation.JsonIgnoreProperties> cache =
+				new AnnotationViewCache<com.fasterxml.jackson.annotation.JsonIgnoreProperties>(
+						com.fasterxml.jackson.annotation.JsonIgnoreProperties.class);
+		final JsonIgnoreProperties legacy = Annotated.class.getAnnotation(JsonIgnoreProperties.class);
+		com.fasterxml.jackson.annotation.JsonIgnoreProperties first = cache.viewOf(legacy);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<com.fasterxml.jackson.annotation.JsonIgnoreProperties>> views =
+					new ArrayList<Future<com.fasterxml.jackson.annotation.JsonIgnoreProperties>>();
+			for (int i = 0; i < 100; ++i) {
+				views.add(executor.submit(new Callable<com.fasterxml.jackson.annotation.JsonIgnoreProperties>() {
+					@Override
+					public com.fasterxml.jackson.annotation.JsonIgnoreProperties call() {
+						return cache.viewOf(legacy);
+					}
+				}));
+			}
+			for (Future<com.fasterxml.jackson.annotation.JsonIgnoreProperties> view : views) {
+				Assert.assertSame(first, view.get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+		Assert.assertEquals(1, cache.getMissCount());
+		Assert.assertEquals(100, cache.getHitCount());
+		Assert.assertEquals(1, cache.size());
+	}
+}
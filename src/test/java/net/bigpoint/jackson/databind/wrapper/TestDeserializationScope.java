@@ -0,0 +1,179 @@
+package net.bigpoint.jackson.databind.wrapper;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+
+import net.bigpoint.jackson.databind.introspect.JacksonLegacyIntrospector;
+
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.DeserializationConfig;
+import org.codehaus.jackson.map.DeserializationContext;
+import org.codehaus.jackson.map.JsonDeserializer;
+import org.codehaus.jackson.map.annotate.JsonDeserialize;
+import org.codehaus.jackson.map.util.ObjectBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+
+public class TestDeserializationScope {
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	private JsonParser newParser() throws Exception {
+		return mapper.getJsonFactory().createJsonParser("[]");
+	}
+
+	private com.fasterxml.jackson.databind.DeserializationContext newContext(JsonParser jp) {
+		return ((DefaultDeserializationContext) mapper.getDeserializationContext()).createInstance(
+				mapper.getDeserializationConfig(), jp, null);
+	}
+
+	@Test
+	public void testWrappersAreResetBetweenCalls() throws Exception {
+		JsonParser jp = newParser();
+		DeserializationScope first = DeserializationScope.enter(jp, newContext(jp));
+		JsonParser2To1Wrapper parser = first.parser;
+		DeserializationContext2to1Wrapper context = first.context;
+		first.exit();
+		Assert.assertNull(parser.unwrap());
+		Assert.assertNull(context.unwrap());
+
+		JsonParser otherParser = newParser();
+		com.fasterxml.jackson.databind.DeserializationContext otherContext = newContext(otherParser);
+		DeserializationScope second = DeserializationScope.enter(otherParser, otherContext);
+		try {
+			Assert.assertSame(first, second);
+			Assert.assertSame(parser, second.parser);
+			Assert.assertSame(context, second.context);
+			Assert.assertSame(otherParser, second.parser.unwrap());
+			Assert.assertSame(otherContext, second.context.unwrap());
+		} finally {
+			second.exit();
+		}
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testConfigChangesDoNotLeakIntoLaterCalls() throws Exception {
+		JsonParser jp = newParser();
+		com.fasterxml.jackson.databind.DeserializationContext ctxt = newContext(jp);
+
+		DeserializationScope first = DeserializationScope.enter(jp, ctxt);
+		DeserializationConfig changed = first.context.getConfig();
+		Assert.assertSame(changed, first.context.getConfig());
+		changed.disable(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES);
+		first.exit();
+
+		DeserializationScope second = DeserializationScope.enter(jp, ctxt);
+		try {
+			Assert.assertSame(first.context, second.context);
+			Assert.assertNotSame(changed, second.context.getConfig());
+			Assert.assertTrue(second.context.getConfig().isEnabled(
+					DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES));
+		} finally {
+			second.exit();
+		}
+	}
+
+	@Test
+	public void testEveryWrapperHasItsOwnConfig() throws Exception {
+		Field config = DeserializationContext.class.getDeclaredField("_config");
+		config.setAccessible(true);
+		RecycledBuffers buffers = new RecycledBuffers();
+		DeserializationContext2to1Wrapper first = new DeserializationContext2to1Wrapper(null, buffers);
+		DeserializationContext2to1Wrapper second = new DeserializationContext2to1Wrapper(null, buffers);
+		Assert.assertNotNull(config.get(first));
+		Assert.assertNotSame(config.get(first), config.get(second));
+	}
+
+	@Test
+	public void testBuffersAreRecycledButNotSharedByNestedCalls() throws Exception {
+		JsonParser jp = newParser();
+		com.fasterxml.jackson.databind.DeserializationContext ctxt = newContext(jp);
+
+		DeserializationScope first = DeserializationScope.enter(jp, ctxt);
+		ObjectBuffer buffer = first.context.leaseObjectBuffer();
+		first.context.returnObjectBuffer(buffer);
+		first.exit();
+
+		DeserializationScope outer = DeserializationScope.enter(jp, ctxt);
+		try {
+			ObjectBuffer outerBuffer = outer.context.leaseObjectBuffer();
+			Assert.assertSame(buffer, outerBuffer);
+
+			JsonParser otherParser = newParser();
+			DeserializationScope inner = DeserializationScope.enter(otherParser, newContext(otherParser));
+			try {
+				Assert.assertNotSame(outer, inner);
+				// the buffer is still leased by the enclosing call
+				Assert.assertNotSame(outerBuffer, inner.context.leaseObjectBuffer());
+			} finally {
+				inner.exit();
+			}
+			Assert.assertSame(jp, outer.parser.unwrap());
+			Assert.assertSame(ctxt, outer.context.unwrap());
+			outer.context.returnObjectBuffer(outerBuffer);
+		} finally {
+			outer.exit();
+		}
+	}
+
+	static DeserializationConfig outerConfigBefore;
+
+	static DeserializationConfig outerConfigAfter;
+
+	static DeserializationConfig innerConfig;
+
+	public static class InnerDeserializer extends JsonDeserializer<Inner> {
+		@Override
+		@SuppressWarnings("deprecation")
+		public Inner deserialize(org.codehaus.jackson.JsonParser jp, DeserializationContext ctxt) throws IOException {
+			innerConfig = ctxt.getConfig();
+			innerConfig.disable(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES);
+			Inner inner = new Inner();
+			inner.value = jp.getText();
+			return inner;
+		}
+	}
+
+	@JsonDeserialize(using = InnerDeserializer.class)
+	static class Inner {
+		String value;
+	}
+
+	public static class OuterDeserializer extends JsonDeserializer<String[]> {
+		@Override
+		public String[] deserialize(org.codehaus.jackson.JsonParser jp, DeserializationContext ctxt) throws IOException {
+			outerConfigBefore = ctxt.getConfig();
+			jp.nextToken();
+			// runs the jackson 2 mapper, and with it the inner legacy deserializer, with a context of its own
+			Inner inner = jp.readValueAs(Inner.class);
+			outerConfigAfter = ctxt.getConfig();
+			jp.nextToken();
+			String second = jp.getText();
+			Assert.assertEquals(JsonToken.END_ARRAY, jp.nextToken());
+			return new String[] { inner.value, second };
+		}
+	}
+
+	static class Bean {
+		@JsonDeserialize(using = OuterDeserializer.class)
+		public String[] values;
+	}
+
+	@Test
+	public void testNestedDeserialization() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.setAnnotationIntrospector(new JacksonLegacyIntrospector());
+
+		Bean bean = mapper.readValue("{\"values\":[\"a\",\"b\"]}", Bean.class);
+
+		Assert.assertArrayEquals(new String[] { "a", "b" }, bean.values);
+		Assert.assertSame(outerConfigBefore, outerConfigAfter);
+		Assert.assertNotSame(outerConfigBefore, innerConfig);
+		Assert.assertTrue(outerConfigAfter.isEnabled(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES));
+	}
+}
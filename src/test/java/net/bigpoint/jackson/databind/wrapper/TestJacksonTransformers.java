@@ -0,0 +1,164 @@
+package net.bigpoint.jackson.databind.wrapper;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonParseException;
+import org.codehaus.jackson.JsonParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeBindings;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.type.TypeModifier;
+
+public class TestJacksonTransformers {
+
+	@Test
+	public void testEnumTables() {
+		for (JsonToken token : JsonToken.values()) {
+			org.codehaus.jackson.JsonToken legacy = JacksonTransformers.transformJsonToken(token);
+			Assert.assertEquals(token.name(), legacy.name());
+			Assert.assertSame(token, JacksonTransformers.transformJsonToken(legacy));
+		}
+		for (com.fasterxml.jackson.core.JsonParser.NumberType numberType : com.fasterxml.jackson.core.JsonParser.NumberType
+				.values()) {
+			Assert.assertEquals(numberType.name(), JacksonTransformers.transformNumberType(numberType).name());
+		}
+		for (JsonGenerator.Feature feature : JsonGenerator.Feature.values()) {
+			Assert.assertEquals(feature.name(), JacksonTransformers.transformFeature(feature).name());
+		}
+		Assert.assertSame(com.fasterxml.jackson.core.JsonParser.Feature.ALLOW_COMMENTS,
+				JacksonTransformers.transformFeature(JsonParser.Feature.ALLOW_COMMENTS));
+		Assert.assertNull(JacksonTransformers.transformJsonToken((JsonToken) null));
+	}
+
+	@Test
+	public void testJavaTypePreservesTypeParameters() {
+		TypeFactory fac = TypeFactory.defaultInstance();
+		org.codehaus.jackson.type.JavaType legacyType = org.codehaus.jackson.map.type.TypeFactory.defaultInstance().constructType(
+				new org.codehaus.jackson.type.TypeReference<Map<String, List<AtomicReference<Integer>[]>>>() {
+				});
+		JavaType expected = fac.constructType(new TypeReference<Map<String, List<AtomicReference<Integer>[]>>>() {
+		});
+
+		JavaType translated = JacksonTransformers.transformJavaType(legacyType, fac);
+		Assert.assertEquals(expected, translated);
+		Assert.assertEquals(translated, JacksonTransformers.transformJavaType(legacyType, fac));
+	}
+
+	@Test
+	public void testJavaTypeCache() {
+		TypeFactory fac = TypeFactory.defaultInstance();
+		org.codehaus.jackson.type.JavaType legacyType = org.codehaus.jackson.map.type.TypeFactory.defaultInstance()
+				.constructType(new org.codehaus.jackson.type.TypeReference<Map<String, List<Integer>>>() {
+				});
+		JavaTypeCache<org.codehaus.jackson.type.JavaType> cache = new JavaTypeCache<org.codehaus.jackson.type.JavaType>(2);
+
+		JavaType translated = JacksonTransformers.transformJavaType(legacyType, fac, cache);
+		Assert.assertSame(translated, JacksonTransformers.transformJavaType(legacyType, fac, cache));
+
+		// types of another type factory are not handed out
+		TypeFactory otherFac = fac.withModifier(new TypeModifier() {
+			@Override
+			public JavaType modifyType(JavaType type, Type jdkType, TypeBindings context, TypeFactory typeFactory) {
+				return type;
+			}
+		});
+		JavaType other = JacksonTransformers.transformJavaType(legacyType, otherFac, cache);
+		Assert.assertNotSame(translated, other);
+		Assert.assertEquals(translated, other);
+		Assert.assertEquals(1, cache.size());
+
+		// the least recently used type is dropped
+		JacksonTransformers.transformJavaType(org.codehaus.jackson.map.type.TypeFactory.defaultInstance()
+				.constructType(String.class), otherFac, cache);
+		JacksonTransformers.transformJavaType(legacyType, otherFac, cache);
+		JacksonTransformers.transformJavaType(org.codehaus.jackson.map.type.TypeFactory.defaultInstance()
+				.constructType(Integer.class), otherFac, cache);
+		Assert.assertEquals(2, cache.size());
+		Assert.assertSame(other, JacksonTransformers.transformJavaType(legacyType, otherFac, cache));
+	}
+
+	@Test
+	public void testCodecReusesTranslatedTypes() {
+		ObjectCodec2To1Wrapper codec = new ObjectCodec2To1Wrapper(new ObjectMapper());
+		org.codehaus.jackson.type.JavaType legacyType = org.codehaus.jackson.map.type.TypeFactory.defaultInstance()
+				.constructType(new org.codehaus.jackson.type.TypeReference<List<String>>() {
+				});
+		JavaType translated = codec.jackson2Type(legacyType);
+		Assert.assertEquals(TypeFactory.defaultInstance().constructCollectionType(List.class, String.class), translated);
+		Assert.assertSame(translated, codec.jackson2Type(legacyType));
+	}
+
+	@Test
+	public void testTypeReference() {
+		org.codehaus.jackson.type.TypeReference<List<String>> legacyReference =
+				new org.codehaus.jackson.type.TypeReference<List<String>>() {
+		};
+		TypeReference<?> reference = JacksonTransformers.transformTypeReference(legacyReference);
+		Assert.assertEquals(legacyReference.getType(), reference.getType());
+
+		TypeFactory fac = TypeFactory.defaultInstance();
+		JavaType type = JacksonTransformers.transformTypeReference(legacyReference, fac);
+		Assert.assertEquals(fac.constructCollectionType(List.class, String.class), type);
+
+		JavaTypeCache<Type> cache = new JavaTypeCache<Type>(2);
+		JavaType resolved = JacksonTransformers.transformTypeReference(legacyReference, fac, cache);
+		Assert.assertEquals(type, resolved);
+		Assert.assertSame(resolved, JacksonTransformers.transformTypeReference(legacyReference, fac, cache));
+	}
+
+	@Test
+	public void testParserReusesResolvedTypeReferences() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		org.codehaus.jackson.type.TypeReference<List<String>> legacyReference =
+				new org.codehaus.jackson.type.TypeReference<List<String>>() {
+		};
+		JsonParser2To1Wrapper parser = new JsonParser2To1Wrapper(mapper.getJsonFactory().createJsonParser(
+				"[\"a\"] [\"b\"]"));
+
+		Assert.assertEquals(Arrays.asList("a"), parser.readValueAs(legacyReference));
+		ObjectCodec2To1Wrapper bridge = (ObjectCodec2To1Wrapper) parser.getCodec();
+		Field resolvedTypes = ObjectCodec2To1Wrapper.class.getDeclaredField("resolvedTypes");
+		resolvedTypes.setAccessible(true);
+		Assert.assertEquals(1, ((JavaTypeCache<?>) resolvedTypes.get(bridge)).size());
+		JavaType resolved = bridge.jackson2Type(mapper, legacyReference);
+		Assert.assertEquals(mapper.getTypeFactory().constructCollectionType(List.class, String.class), resolved);
+
+		Assert.assertEquals(Arrays.asList("b"), parser.readValueAs(legacyReference));
+		Assert.assertSame(bridge, parser.getCodec());
+		Assert.assertSame(resolved, bridge.jackson2Type(mapper, legacyReference));
+	}
+
+	@Test
+	public void testStacklessExceptions() {
+		com.fasterxml.jackson.core.JsonParseException original = new com.fasterxml.jackson.core.JsonParseException(
+				"broken", new com.fasterxml.jackson.core.JsonLocation("source", 10, 5, 2, 3));
+		JsonParseException stackless = ExceptionTranslation.STACKLESS.wrapJsonParseException(original);
+		Assert.assertEquals(0, stackless.getStackTrace().length);
+		Assert.assertSame(original, stackless.getCause());
+		Assert.assertTrue(stackless.getMessage().startsWith("broken"));
+		Assert.assertEquals(10, stackless.getLocation().getByteOffset());
+		Assert.assertEquals(5, stackless.getLocation().getCharOffset());
+		Assert.assertEquals(2, stackless.getLocation().getLineNr());
+
+		JsonParseException translated = JacksonTransformers.wrapJsonParseException(original);
+		Assert.assertTrue(translated.getStackTrace().length > 0);
+		Assert.assertEquals(10, translated.getLocation().getByteOffset());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnsupportedParserFeature() {
+		JacksonTransformers.transformFeature(JsonParser.Feature.INTERN_FIELD_NAMES);
+	}
+}
@@ -0,0 +1,103 @@
+package net.bigpoint.jackson.databind.wrapper;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+
+import net.bigpoint.jackson.databind.introspect.JacksonLegacyIntrospector;
+
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.JsonSerializer;
+import org.codehaus.jackson.map.SerializerProvider;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+import org.codehaus.jackson.node.ArrayNode;
+import org.codehaus.jackson.node.JsonNodeFactory;
+import org.codehaus.jackson.node.ObjectNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class TestJsonGenerator2To1Wrapper {
+
+	public static class TreeSerializer extends JsonSerializer<Object> {
+		@Override
+		public void serialize(Object value, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+			ObjectNode node = (ObjectNode) jgen.getCodec().createObjectNode();
+			node.put("value", String.valueOf(value));
+			jgen.writeTree(node);
+		}
+	}
+
+	public static class Bean {
+		@JsonSerialize(using = TreeSerializer.class)
+		public int a = 1;
+	}
+
+	@Test
+	public void testWriteTree() throws Exception {
+		ObjectNode tree = JsonNodeFactory.instance.objectNode();
+		tree.put("s", "text");
+		tree.put("i", 1);
+		tree.put("l", Long.MAX_VALUE);
+		tree.put("d", 1.5);
+		tree.put("bd", new BigDecimal("1.25"));
+		tree.put("b", true);
+		tree.put("bin", new byte[] { 1, 2, 3 });
+		tree.putNull("n");
+		tree.putPOJO("pojo", new Bean());
+		ArrayNode array = tree.putArray("array");
+		array.add(1);
+		array.addObject();
+		array.addArray().add("x");
+		tree.putObject("empty");
+
+		ObjectMapper mapper = new ObjectMapper();
+		StringWriter out = new StringWriter();
+		JsonGenerator2To1Wrapper generator = new JsonGenerator2To1Wrapper(mapper.getJsonFactory().createJsonGenerator(
+				out));
+		generator.writeTree(tree);
+		generator.flush();
+		// the pojo is written by the jackson 2 mapper, which does not know the jackson 1 annotation
+		String expected = new org.codehaus.jackson.map.ObjectMapper().writeValueAsString(tree).replace(
+				"{\"value\":\"1\"}", "1");
+		Assert.assertEquals(expected, out.toString());
+
+		out = new StringWriter();
+		generator.reset(mapper.getJsonFactory().createJsonGenerator(out));
+		generator.writeObject(array);
+		generator.writeTree(null);
+		generator.flush();
+		Assert.assertEquals("[1,{},[\"x\"]] null", out.toString());
+	}
+
+	@Test
+	public void testDeepTree() throws Exception {
+		ArrayNode root = JsonNodeFactory.instance.arrayNode();
+		ArrayNode current = root;
+		for (int i = 0; i < 100000; ++i) {
+			current = current.addArray();
+		}
+		StringWriter out = new StringWriter();
+		JsonGenerator2To1Wrapper generator = new JsonGenerator2To1Wrapper(new ObjectMapper().getJsonFactory()
+				.createJsonGenerator(out));
+		generator.writeTree(root);
+		generator.flush();
+		Assert.assertEquals(200002, out.toString().length());
+	}
+
+	@Test
+	public void testCodecBridge() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.setAnnotationIntrospector(new JacksonLegacyIntrospector());
+		Assert.assertEquals("{\"a\":{\"value\":\"1\"}}", mapper.writeValueAsString(new Bean()));
+
+		JsonGenerator2To1Wrapper generator = new JsonGenerator2To1Wrapper(mapper.getJsonFactory().createJsonGenerator(
+				new StringWriter()));
+		Assert.assertSame(mapper, ((ObjectCodec2To1Wrapper) generator.getCodec()).unwrap());
+		Assert.assertSame(generator.getCodec(), generator.getCodec());
+		JsonNode node = generator.getCodec().createArrayNode();
+		Assert.assertTrue(node.isArray());
+	}
+}
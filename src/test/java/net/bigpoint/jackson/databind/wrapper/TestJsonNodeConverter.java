@@ -0,0 +1,91 @@
+package net.bigpoint.jackson.databind.wrapper;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.node.ArrayNode;
+import org.codehaus.jackson.node.JsonNodeFactory;
+import org.codehaus.jackson.node.ObjectNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class TestJsonNodeConverter {
+
+	private static final String JSON = "{\"s\":\"text\",\"i\":1,\"l\":9223372036854775807,"
+			+ "\"bi\":92233720368547758070,\"d\":1.5,\"bd\":1.25,\"t\":true,\"f\":false,\"n\":null,"
+			+ "\"array\":[1,{},[\"x\"],[]],\"empty\":{}}";
+
+	@Test
+	public void testConvert() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		org.codehaus.jackson.map.ObjectMapper legacyMapper = new org.codehaus.jackson.map.ObjectMapper();
+		JsonNode legacy = legacyMapper.readTree(JSON);
+		((ObjectNode) legacy).put("bd", new BigDecimal("1.25"));
+		byte[] data = { 1, 2, 3 };
+		((ObjectNode) legacy).put("bin", data);
+
+		com.fasterxml.jackson.databind.JsonNode converted = JsonNodeConverter.toJackson2(legacy);
+		Assert.assertEquals(legacyMapper.writeValueAsString(legacy), mapper.writeValueAsString(converted));
+		Assert.assertTrue(converted.get("bi").isBigInteger());
+		Assert.assertTrue(converted.get("bd").isBigDecimal());
+		Assert.assertTrue(converted.get("l").isLong());
+		// leaf payloads and canonical nodes are shared
+		Assert.assertSame(legacy.get("s").getTextValue(), converted.get("s").textValue());
+		Assert.assertSame(data, converted.get("bin").binaryValue());
+		Assert.assertSame(com.fasterxml.jackson.databind.node.BooleanNode.TRUE, converted.get("t"));
+		Assert.assertSame(com.fasterxml.jackson.databind.node.NullNode.getInstance(), converted.get("n"));
+
+		JsonNode back = JsonNodeConverter.toJackson1(converted);
+		Assert.assertEquals(legacy, back);
+		Assert.assertNotSame(legacy, back);
+		Assert.assertSame(data, back.get("bin").getBinaryValue());
+		Assert.assertSame(org.codehaus.jackson.node.MissingNode.getInstance(),
+				JsonNodeConverter.toJackson1(com.fasterxml.jackson.databind.node.MissingNode.getInstance()));
+		Assert.assertNull(JsonNodeConverter.toJackson2(null));
+	}
+
+	@Test
+	public void testSharedContainers() {
+		ObjectNode root = JsonNodeFactory.instance.objectNode();
+		ArrayNode shared = root.putArray("a");
+		shared.add(1);
+		root.put("b", shared);
+		com.fasterxml.jackson.databind.JsonNode converted = JsonNodeConverter.toJackson2(root);
+		Assert.assertSame(converted.get("a"), converted.get("b"));
+		Assert.assertEquals(1, converted.get("b").get(0).intValue());
+	}
+
+	@Test
+	public void testDeepTree() {
+		ArrayNode root = JsonNodeFactory.instance.arrayNode();
+		ArrayNode current = root;
+		for (int i = 0; i < 100000; ++i) {
+			current = current.addArray();
+		}
+		current.add("leaf");
+		JsonNode back = JsonNodeConverter.toJackson1(JsonNodeConverter.toJackson2(root));
+		for (int i = 0; i < 100000; ++i) {
+			back = back.get(0);
+		}
+		Assert.assertEquals("leaf", back.get(0).getTextValue());
+	}
+
+	@Test
+	public void testStreaming() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		com.fasterxml.jackson.core.JsonParser jp = mapper.getJsonFactory().createJsonParser(JSON + " [1]");
+		JsonNode tree = JsonNodeConverter.readJackson1Tree(jp);
+		Assert.assertEquals(new org.codehaus.jackson.map.ObjectMapper().readTree(JSON), tree);
+		Assert.assertEquals(1, JsonNodeConverter.readJackson1Tree(jp).get(0).getIntValue());
+		Assert.assertNull(JsonNodeConverter.readJackson1Tree(jp));
+
+		StringWriter out = new StringWriter();
+		com.fasterxml.jackson.core.JsonGenerator jgen = mapper.getJsonFactory().createJsonGenerator(out);
+		JsonNodeConverter.writeJackson1Tree(tree, jgen);
+		jgen.flush();
+		Assert.assertEquals(JSON, out.toString());
+	}
+}
@@ -0,0 +1,134 @@
+package net.bigpoint.jackson.databind.wrapper;
+
+import java.io.StringWriter;
+import java.util.Iterator;
+
+import org.codehaus.jackson.JsonLocation;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.JsonParseException;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.ObjectCodec;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class TestJsonParser2To1Wrapper {
+
+	@Test
+	public void testLocations() throws Exception {
+		com.fasterxml.jackson.core.JsonParser jp = new JsonFactory().createParser("{\"a\":\n 1}");
+		JsonParser2To1Wrapper parser = new JsonParser2To1Wrapper(jp);
+		Assert.assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+		Assert.assertEquals(JsonToken.FIELD_NAME, parser.nextToken());
+		Assert.assertEquals(JsonToken.VALUE_NUMBER_INT, parser.nextToken());
+
+		JsonLocation location = parser.getTokenLocation();
+		com.fasterxml.jackson.core.JsonLocation expected = jp.getTokenLocation();
+		Assert.assertSame(expected.getSourceRef(), location.getSourceRef());
+		Assert.assertEquals(expected.getCharOffset(), location.getCharOffset());
+		Assert.assertEquals(expected.getByteOffset(), location.getByteOffset());
+		Assert.assertEquals(expected.getLineNr(), location.getLineNr());
+		Assert.assertEquals(expected.getColumnNr(), location.getColumnNr());
+		// handed out again while the parser stays on the token
+		Assert.assertSame(location, parser.getTokenLocation());
+		Assert.assertSame(parser.getCurrentLocation(), parser.getCurrentLocation());
+
+		parser.nextToken();
+		Assert.assertNotSame(location, parser.getTokenLocation());
+		// handed out locations do not change
+		Assert.assertEquals(expected.getCharOffset(), location.getCharOffset());
+
+		parser.setLocationTracking(false);
+		Assert.assertSame(JsonLocation.NA, parser.getTokenLocation());
+		Assert.assertSame(JsonLocation.NA, parser.getCurrentLocation());
+	}
+
+	public static class Point {
+		public int x;
+
+		public int y;
+	}
+
+	@Test
+	public void testCodecBridge() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		com.fasterxml.jackson.core.JsonParser jp = mapper.getJsonFactory().createJsonParser(
+				"{\"a\":[1,2.5,\"s\",{\"b\":null}],\"c\":true} {\"x\":1,\"y\":2}");
+		JsonParser2To1Wrapper parser = new JsonParser2To1Wrapper(jp);
+		ObjectCodec codec = parser.getCodec();
+		Assert.assertTrue(codec instanceof ObjectCodec2To1Wrapper);
+		Assert.assertSame(mapper, ((ObjectCodec2To1Wrapper) codec).unwrap());
+		Assert.assertSame(codec, parser.getCodec());
+
+		JsonNode tree = parser.readValueAsTree();
+		Assert.assertEquals(new org.codehaus.jackson.map.ObjectMapper().readTree(
+				"{\"a\":[1,2.5,\"s\",{\"b\":null}],\"c\":true}"), tree);
+		Assert.assertNull(parser.getCurrentToken());
+
+		Point point = parser.readValueAs(Point.class);
+		Assert.assertEquals(2, point.y);
+		Assert.assertNull(codec.readTree(parser));
+
+		// jackson 1 codecs are used by the wrapper only
+		org.codehaus.jackson.map.ObjectMapper legacyMapper = new org.codehaus.jackson.map.ObjectMapper();
+		parser.setCodec(legacyMapper);
+		Assert.assertSame(legacyMapper, parser.getCodec());
+		Assert.assertSame(mapper, jp.getCodec());
+		parser.setCodec(codec);
+		Assert.assertSame(codec, parser.getCodec());
+	}
+
+	@Test
+	public void testJackson1Parsers() throws Exception {
+		ObjectCodec codec = new ObjectCodec2To1Wrapper(new ObjectMapper());
+		JsonNode node = new org.codehaus.jackson.map.ObjectMapper().readTree("{\"x\":1,\"y\":2}");
+
+		// jackson 1 parsers are buffered for the jackson 2 codec
+		Assert.assertEquals(2, codec.readValue(codec.treeAsTokens(node), Point.class).y);
+		Assert.assertEquals(2, codec.treeAsTokens(node).readValueAs(Point.class).y);
+		Assert.assertEquals(node, codec.readTree(codec.treeAsTokens(node)));
+
+		org.codehaus.jackson.JsonParser jp = new org.codehaus.jackson.JsonFactory()
+				.createJsonParser("{\"x\":1,\"y\":2} {\"x\":3,\"y\":4}");
+		Iterator<Point> points = codec.readValues(jp, Point.class);
+		Assert.assertEquals(2, points.next().y);
+		Assert.assertEquals(4, points.next().y);
+		Assert.assertFalse(points.hasNext());
+
+		// and so are values written to jackson 1 generators
+		StringWriter out = new StringWriter();
+		org.codehaus.jackson.JsonGenerator jgen = new org.codehaus.jackson.JsonFactory().createJsonGenerator(out);
+		codec.writeValue(jgen, codec.treeAsTokens(node).readValueAs(Point.class));
+		jgen.flush();
+		Assert.assertEquals("{\"x\":1,\"y\":2}", out.toString());
+	}
+
+	@Test
+	public void testStacklessExceptions() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		JsonParser2To1Wrapper stackless = new JsonParser2To1Wrapper(mapper.getJsonFactory().createJsonParser("[}"));
+		stackless.setStacklessExceptions(true);
+		JsonParser2To1Wrapper parser = new JsonParser2To1Wrapper(mapper.getJsonFactory().createJsonParser("[}"));
+
+		Assert.assertEquals(0, nextTokenFailure(stackless).getStackTrace().length);
+		Assert.assertTrue(nextTokenFailure(parser).getStackTrace().length > 0);
+		// codecs bridged from the parser translate the same way
+		Assert.assertSame(ExceptionTranslation.STACKLESS,
+				((ObjectCodec2To1Wrapper) stackless.getCodec()).exceptionTranslation());
+		Assert.assertSame(ExceptionTranslation.DEFAULT,
+				((ObjectCodec2To1Wrapper) parser.getCodec()).exceptionTranslation());
+	}
+
+	private static JsonParseException nextTokenFailure(JsonParser2To1Wrapper parser) throws Exception {
+		parser.nextToken();
+		try {
+			parser.nextToken();
+		} catch (JsonParseException e) {
+			Assert.assertTrue(e.getCause() instanceof com.fasterxml.jackson.core.JsonParseException);
+			return e;
+		}
+		throw new AssertionError("expected a parse exception");
+	}
+}
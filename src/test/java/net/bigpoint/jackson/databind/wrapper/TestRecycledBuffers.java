@@ -0,0 +1,63 @@
+package net.bigpoint.jackson.databind.wrapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.bigpoint.jackson.databind.introspect.JacksonLegacyIntrospector;
+
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.DeserializationContext;
+import org.codehaus.jackson.map.JsonDeserializer;
+import org.codehaus.jackson.map.annotate.JsonDeserialize;
+import org.codehaus.jackson.map.util.ObjectBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class TestRecycledBuffers {
+
+	static final List<ObjectBuffer> LEASED = new ArrayList<ObjectBuffer>();
+
+	public static class BufferingDeserializer extends JsonDeserializer<Object[]> {
+		@Override
+		public Object[] deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
+			ObjectBuffer buffer = ctxt.leaseObjectBuffer();
+			LEASED.add(buffer);
+			Object[] chunk = buffer.resetAndStart();
+			int ix = 0;
+			while (jp.nextToken() != JsonToken.END_ARRAY) {
+				if (ix >= chunk.length) {
+					chunk = buffer.appendCompletedChunk(chunk);
+					ix = 0;
+				}
+				chunk[ix++] = jp.getText();
+			}
+			Object[] result = buffer.completeAndClearBuffer(chunk, ix);
+			ctxt.returnObjectBuffer(buffer);
+			return result;
+		}
+	}
+
+	static class Bean {
+		@JsonDeserialize(using = BufferingDeserializer.class)
+		public Object[] values;
+	}
+
+	@Test
+	public void testObjectBufferIsRecycledAcrossCalls() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.setAnnotationIntrospector(new JacksonLegacyIntrospector());
+
+		LEASED.clear();
+		Bean first = mapper.readValue("{\"values\":[\"a\",\"b\"]}", Bean.class);
+		Bean second = mapper.readValue("{\"values\":[\"c\"]}", Bean.class);
+
+		Assert.assertArrayEquals(new Object[] { "a", "b" }, first.values);
+		Assert.assertArrayEquals(new Object[] { "c" }, second.values);
+		Assert.assertEquals(2, LEASED.size());
+		Assert.assertSame(LEASED.get(0), LEASED.get(1));
+	}
+}
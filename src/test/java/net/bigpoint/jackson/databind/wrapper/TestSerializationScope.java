@@ -0,0 +1,108 @@
+package net.bigpoint.jackson.databind.wrapper;
+
+import java.io.StringWriter;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+public class TestSerializationScope {
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	private JsonGenerator newGenerator() throws Exception {
+		return mapper.getJsonFactory().createJsonGenerator(new StringWriter());
+	}
+
+	@Test
+	public void testWrappersAreReusedAcrossCalls() throws Exception {
+		JsonGenerator jgen = newGenerator();
+		SerializerProvider prov = mapper.getSerializerProvider();
+
+		SerializationScope first = SerializationScope.enter(jgen, prov, false);
+		JsonGenerator2To1Wrapper generator = first.generator;
+		SerializerProvider2To1Wrapper provider = first.provider;
+		first.exit();
+
+		JsonGenerator otherGenerator = newGenerator();
+		SerializerProvider otherProvider = new ObjectMapper().getSerializerProvider();
+		SerializationScope second = SerializationScope.enter(otherGenerator, otherProvider, true);
+		try {
+			Assert.assertSame(first, second);
+			Assert.assertSame(generator, second.generator);
+			Assert.assertSame(provider, second.provider);
+			Assert.assertSame(otherGenerator, second.generator.unwrap());
+			Assert.assertSame(otherProvider, second.provider.unwrap());
+			Assert.assertTrue(second.generator.isStacklessExceptions());
+		} finally {
+			second.exit();
+		}
+	}
+
+	@Test
+	public void testNestedCallForSameInstancesSharesScope() throws Exception {
+		JsonGenerator jgen = newGenerator();
+		SerializerProvider prov = mapper.getSerializerProvider();
+
+		SerializationScope outer = SerializationScope.enter(jgen, prov, false);
+		try {
+			SerializationScope inner = SerializationScope.enter(jgen, prov, false);
+			Assert.assertSame(outer, inner);
+			inner.exit();
+			// the inner exit must not release the instances of the enclosing call
+			Assert.assertSame(jgen, outer.generator.unwrap());
+			Assert.assertSame(prov, outer.provider.unwrap());
+		} finally {
+			outer.exit();
+		}
+	}
+
+	@Test
+	public void testNestedCallForOtherInstancesGetsFreshScope() throws Exception {
+		JsonGenerator jgen = newGenerator();
+		SerializerProvider prov = mapper.getSerializerProvider();
+
+		SerializationScope outer = SerializationScope.enter(jgen, prov, false);
+		try {
+			JsonGenerator otherGenerator = newGenerator();
+			assertFreshScope(outer, SerializationScope.enter(otherGenerator, prov, false), jgen, prov);
+
+			SerializerProvider otherProvider = new ObjectMapper().getSerializerProvider();
+			assertFreshScope(outer, SerializationScope.enter(jgen, otherProvider, false), jgen, prov);
+
+			assertFreshScope(outer, SerializationScope.enter(jgen, prov, true), jgen, prov);
+		} finally {
+			outer.exit();
+		}
+	}
+
+	private static void assertFreshScope(SerializationScope outer, SerializationScope inner, JsonGenerator jgen,
+			SerializerProvider prov) {
+		try {
+			Assert.assertNotSame(outer, inner);
+			Assert.assertNotSame(outer.generator, inner.generator);
+			Assert.assertNotSame(outer.provider, inner.provider);
+		} finally {
+			inner.exit();
+		}
+		Assert.assertSame(jgen, outer.generator.unwrap());
+		Assert.assertSame(prov, outer.provider.unwrap());
+		Assert.assertFalse(outer.generator.isStacklessExceptions());
+	}
+
+	@Test
+	public void testInstancesAreReleasedByOutermostExit() throws Exception {
+		JsonGenerator jgen = newGenerator();
+		SerializerProvider prov = mapper.getSerializerProvider();
+
+		SerializationScope outer = SerializationScope.enter(jgen, prov, false);
+		SerializationScope.enter(jgen, prov, false).exit();
+		outer.exit();
+
+		Assert.assertNull(outer.generator.unwrap());
+		Assert.assertNull(outer.provider.unwrap());
+	}
+}
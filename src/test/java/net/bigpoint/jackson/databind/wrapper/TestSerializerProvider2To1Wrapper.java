@@ -0,0 +1,28 @@
+package net.bigpoint.jackson.databind.wrapper;
+
+import org.codehaus.jackson.map.JsonSerializer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+
+public class TestSerializerProvider2To1Wrapper {
+
+	@Test
+	public void testWrappersAreReused() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		DefaultSerializerProvider provider = ((DefaultSerializerProvider) mapper.getSerializerProvider())
+				.createInstance(mapper.getSerializationConfig(), mapper.getSerializerFactory());
+		SerializerProvider2To1Wrapper wrapper = new SerializerProvider2To1Wrapper(provider);
+
+		JsonSerializer<Object> serializer = wrapper.findValueSerializer(String.class, null);
+		Assert.assertSame(serializer, wrapper.findValueSerializer(String.class, null));
+		Assert.assertSame(provider.findValueSerializer(String.class, null),
+				((JsonSerializer2To1Wrapper<Object>) serializer).unwrap());
+		Assert.assertSame(wrapper.getNullValueSerializer(), wrapper.getNullValueSerializer());
+
+		wrapper.reset(provider);
+		Assert.assertNotSame(serializer, wrapper.findValueSerializer(String.class, null));
+	}
+}
@@ -0,0 +1,124 @@
+package net.bigpoint.jackson.databind.wrapper;
+
+import java.io.IOException;
+
+import net.bigpoint.jackson.databind.introspect.JacksonLegacyIntrospector;
+
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonProcessingException;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.DeserializationContext;
+import org.codehaus.jackson.map.JsonDeserializer;
+import org.codehaus.jackson.map.annotate.JsonDeserialize;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class TestTokenBuffer2To1Wrapper {
+
+	public static class Shape {
+		public String type;
+	}
+
+	public static class Circle extends Shape {
+		public int radius;
+	}
+
+	public static class Square extends Shape {
+		public int side;
+	}
+
+	/**
+	 * scans the object for its type before reading it
+	 */
+	public static class ShapeDeserializer extends JsonDeserializer<Shape> {
+		@Override
+		public Shape deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException,
+				JsonProcessingException {
+			TokenBuffer2To1Wrapper buffer = TokenBuffer2To1Wrapper.bufferCurrentStructure(jp);
+			JsonParser scan = buffer.asParser(jp);
+			String type = null;
+			scan.nextToken();
+			while (scan.nextToken() == JsonToken.FIELD_NAME) {
+				String name = scan.getCurrentName();
+				scan.nextToken();
+				if ("type".equals(name)) {
+					type = scan.getText();
+				} else {
+					scan.skipChildren();
+				}
+			}
+			JsonParser replay = buffer.asParser(jp);
+			replay.nextToken();
+			return replay.readValueAs("circle".equals(type) ? Circle.class : Square.class);
+		}
+	}
+
+	public static class Drawing {
+		@JsonDeserialize(using = ShapeDeserializer.class)
+		public Shape shape;
+
+		public int after;
+	}
+
+	@Test
+	public void testLookahead() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.setAnnotationIntrospector(new JacksonLegacyIntrospector());
+
+		Drawing drawing = mapper.readValue("{\"shape\":{\"radius\":2,\"type\":\"circle\"},\"after\":3}",
+				Drawing.class);
+		Assert.assertEquals(2, ((Circle) drawing.shape).radius);
+		Assert.assertEquals("circle", drawing.shape.type);
+		Assert.assertEquals(3, drawing.after);
+
+		drawing = mapper.readValue("{\"shape\":{\"side\":4,\"type\":\"square\"},\"after\":5}", Drawing.class);
+		Assert.assertEquals(4, ((Square) drawing.shape).side);
+		Assert.assertEquals(5, drawing.after);
+	}
+
+	@Test
+	public void testReplay() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		JsonParser2To1Wrapper jp = new JsonParser2To1Wrapper(mapper.getJsonFactory().createJsonParser(
+				"[1,{\"a\":[true]}] 2"));
+		jp.nextToken();
+		TokenBuffer2To1Wrapper buffer = TokenBuffer2To1Wrapper.bufferCurrentStructure(jp);
+		Assert.assertEquals(JsonToken.END_ARRAY, jp.getCurrentToken());
+		Assert.assertEquals(JsonToken.VALUE_NUMBER_INT, jp.nextToken());
+		Assert.assertEquals(2, jp.getIntValue());
+
+		for (int i = 0; i < 2; ++i) {
+			JsonParser replay = buffer.asParser();
+			Assert.assertNull(replay.getCurrentToken());
+			Assert.assertEquals(JsonToken.START_ARRAY, replay.nextToken());
+			Assert.assertEquals(JsonToken.VALUE_NUMBER_INT, replay.nextToken());
+			Assert.assertEquals(1, replay.getIntValue());
+			replay.nextToken();
+			Assert.assertEquals("{\"a\":[true]}", replay.readValueAsTree().toString());
+		}
+
+		buffer.asGenerator().writeNumber(3);
+		JsonParser replay = buffer.asParser();
+		replay.nextToken();
+		replay.skipChildren();
+		Assert.assertEquals(JsonToken.VALUE_NUMBER_INT, replay.nextToken());
+		Assert.assertEquals(3, replay.getIntValue());
+	}
+
+	@Test
+	public void testJackson1Parser() throws Exception {
+		JsonParser jp = new org.codehaus.jackson.JsonFactory().createJsonParser("{\"a\":[1,2.5,\"s\",null]} true");
+		jp.nextToken();
+		TokenBuffer2To1Wrapper buffer = TokenBuffer2To1Wrapper.bufferCurrentStructure(jp);
+		Assert.assertEquals(JsonToken.END_OBJECT, jp.getCurrentToken());
+		Assert.assertEquals(JsonToken.VALUE_TRUE, jp.nextToken());
+
+		JsonParser replay = buffer.asParser(jp);
+		replay.setCodec(new ObjectCodec2To1Wrapper(new ObjectMapper()));
+		replay.nextToken();
+		Assert.assertEquals(new org.codehaus.jackson.map.ObjectMapper().readTree("{\"a\":[1,2.5,\"s\",null]}"),
+				replay.readValueAsTree());
+	}
+}
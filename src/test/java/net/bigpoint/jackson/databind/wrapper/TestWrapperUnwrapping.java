@@ -0,0 +1,152 @@
+package net.bigpoint.jackson.databind.wrapper;
+
+import java.io.IOException;
+
+import net.bigpoint.jackson.databind.introspect.JacksonLegacyIntrospector;
+
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.map.DeserializationContext;
+import org.codehaus.jackson.map.JsonDeserializer;
+import org.codehaus.jackson.map.JsonSerializer;
+import org.codehaus.jackson.map.SerializerProvider;
+import org.codehaus.jackson.map.annotate.JsonDeserialize;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
+import org.codehaus.jackson.map.type.TypeFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StringSerializer;
+
+public class TestWrapperUnwrapping {
+
+	@Test
+	public void testSerializerRoundTrip() {
+		StringSerializer serializer = new StringSerializer();
+		org.codehaus.jackson.map.JsonSerializer<String> legacy = JsonSerializer2To1Wrapper.wrap(serializer);
+		Assert.assertTrue(legacy instanceof JsonSerializer2To1Wrapper);
+		Assert.assertSame(serializer, JsonSerializer1To2Wrapper.wrap(legacy));
+		Assert.assertNull(JsonSerializer1To2Wrapper.wrap(null));
+	}
+
+	@Test
+	public void testDeserializerRoundTrip() {
+		StringDeserializer deserializer = new StringDeserializer();
+		org.codehaus.jackson.map.JsonDeserializer<String> legacy = JsonDeserializer2To1Wrapper.wrap(deserializer);
+		Assert.assertTrue(legacy instanceof JsonDeserializer2To1Wrapper);
+		Assert.assertSame(deserializer, JsonDeserializer1To2Wrapper.wrap(legacy));
+		Assert.assertNull(JsonDeserializer2To1Wrapper.wrap(null));
+	}
+
+	public static class PointSerializer extends JsonSerializer<Point> {
+		@Override
+		public void serialize(Point value, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+			jgen.writeString(value.x + "," + value.y);
+		}
+	}
+
+	public static class PointDeserializer extends JsonDeserializer<Point> {
+		@Override
+		public Point deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
+			String[] parts = jp.getText().split(",");
+			return new Point(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+		}
+	}
+
+	@JsonSerialize(using = PointSerializer.class)
+	@JsonDeserialize(using = PointDeserializer.class)
+	static class Point {
+		final int x;
+
+		final int y;
+
+		Point(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+	}
+
+	static Object foundSerializer;
+
+	static Object foundDeserializer;
+
+	/**
+	 * writes a point through the serializer the provider hands out for it
+	 */
+	public static class LookupSerializer extends JsonSerializer<Point> {
+		@Override
+		public void serialize(Point value, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+			JsonSerializer<Object> serializer = provider.findValueSerializer(Point.class, null);
+			foundSerializer = serializer;
+			serializer.serialize(value, jgen, provider);
+		}
+	}
+
+	/**
+	 * reads a point through the deserializer the provider hands out for it
+	 */
+	public static class LookupDeserializer extends JsonDeserializer<Point> {
+		@Override
+		public Point deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
+			JsonDeserializer<Object> deserializer = ctxt.getDeserializerProvider().findValueDeserializer(
+					ctxt.getConfig(), TypeFactory.defaultInstance().constructType(Point.class), null);
+			foundDeserializer = deserializer;
+			return (Point) deserializer.deserialize(jp, ctxt);
+		}
+	}
+
+	static class Holder {
+		@JsonSerialize(using = LookupSerializer.class)
+		@JsonDeserialize(using = LookupDeserializer.class)
+		public Point point;
+
+		public String name;
+	}
+
+	@Test
+	public void testLegacyHandlersAreUnwrappedThroughIntrospector() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.setAnnotationIntrospector(new JacksonLegacyIntrospector());
+		Holder holder = new Holder();
+		holder.point = new Point(1, 2);
+
+		Assert.assertEquals("{\"point\":\"1,2\",\"name\":null}", mapper.writeValueAsString(holder));
+		Assert.assertTrue(foundSerializer instanceof PointSerializer);
+
+		Holder read = mapper.readValue("{\"point\":\"3,4\",\"name\":\"n\"}", Holder.class);
+		Assert.assertEquals(3, read.point.x);
+		Assert.assertEquals(4, read.point.y);
+		Assert.assertEquals("n", read.name);
+		Assert.assertTrue(foundDeserializer instanceof PointDeserializer);
+	}
+
+	/**
+	 * reads the value through the jackson 2 string deserializer
+	 */
+	public static class StringLookupDeserializer extends JsonDeserializer<String> {
+		@Override
+		public String deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
+			JsonDeserializer<Object> deserializer = ctxt.getDeserializerProvider().findValueDeserializer(
+					ctxt.getConfig(), TypeFactory.defaultInstance().constructType(String.class), null);
+			foundDeserializer = deserializer;
+			return "read " + deserializer.deserialize(jp, ctxt);
+		}
+	}
+
+	static class StringHolder {
+		@JsonDeserialize(using = StringLookupDeserializer.class)
+		public String value;
+	}
+
+	@Test
+	public void testJackson2DeserializersAreWrappedThroughIntrospector() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.setAnnotationIntrospector(new JacksonLegacyIntrospector());
+
+		StringHolder read = mapper.readValue("{\"value\":\"text\"}", StringHolder.class);
+		Assert.assertEquals("read text", read.value);
+		Assert.assertTrue(foundDeserializer instanceof JsonDeserializer2To1Wrapper);
+	}
+}